@@ -0,0 +1,111 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/* ---------------------------
+   Application Context
+   The long-lived services of one running program: the journal, the
+   guide catalog, the hospital directory, the report desk, the survivor
+   registry, the event ring their changes are published to and the
+   person matcher that links the two. Each is built the first time it is needed and
+   then shared by every menu visit and every operator session, so
+   reports and survivors survive navigation and re-entering a menu
+   costs nothing.
+
+   Start with -Drsr.startupTiming=true to print how long each service
+   took to build.
+   --------------------------- */
+final class AppContext {
+    private final boolean reportTiming = Boolean.getBoolean("rsr.startupTiming");
+    private final List<String> timings = new ArrayList<>();
+
+    private final Lazy<Journal> journal = new Lazy<>("journal", Journal::get);
+    private final Lazy<GuideCatalog> catalog = new Lazy<>("guide catalog", GuideCatalog::get);
+    private final Lazy<HospitalDirectory> hospitals = new Lazy<>("hospital directory", HospitalDirectory::new);
+    private final AlertSubscriber alerts = new AlertSubscriber();
+    private final Lazy<EventRing> events = new Lazy<>("event ring", () -> {
+        EventRing ring = new EventRing(EventRing.configuredCapacity());
+        ring.subscribe("alerts", alerts);
+        return ring;
+    });
+    private final Lazy<ReportDesk> desk = new Lazy<>("report desk", () -> {
+        ReportDesk d = new ReportDesk(hospitals(), journal());
+        d.attachEvents(events());
+        return d;
+    });
+    private final Lazy<SurvivorRegistry> survivors = new Lazy<>("survivor registry", () -> {
+        SurvivorRegistry registry = new SurvivorRegistry();
+        registry.attachJournal(journal());
+        registry.attachEvents(events());
+        return registry;
+    });
+
+    private final Lazy<PersonMatcher> matcher = new Lazy<>("person matcher", () -> {
+        PersonMatcher m = new PersonMatcher(desk(), survivors());
+        m.attachEvents(events());
+        return m;
+    });
+
+    public Journal journal() { return journal.get(); }
+    public GuideCatalog catalog() { return catalog.get(); }
+    public HospitalDirectory hospitals() { return hospitals.get(); }
+    public ReportDesk desk() { return desk.get(); }
+    public SurvivorRegistry survivors() { return survivors.get(); }
+    public EventRing events() { return events.get(); }
+    public PersonMatcher matcher() { return matcher.get(); }
+    public AlertSubscriber alerts() { return alerts; }
+
+    /* Builds every service now, e.g. before a server starts taking operators. */
+    public void warmUp() {
+        catalog();
+        desk();
+        survivors();
+        matcher();
+        reportReady("server");
+    }
+
+    /* Notes (with -Drsr.startupTiming=true) how long after JVM start the program was ready for input. */
+    public void reportReady(String what) {
+        if (reportTiming) {
+            long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.out.println("startup: " + what + " ready " + sinceStart + " ms after JVM start");
+        }
+    }
+
+    /* How long each service took to build, in the order they were built. */
+    public synchronized List<String> startupTimings() {
+        return List.copyOf(timings);
+    }
+
+    private synchronized void record(String name, long nanos) {
+        String line = name + " " + (nanos / 100_000) / 10.0 + " ms";
+        timings.add(line);
+        if (reportTiming) System.out.println("startup: " + line);
+    }
+
+    // Built on first use, at most once, even with several sessions asking at the same time.
+    private final class Lazy<T> {
+        private final String name;
+        private final Supplier<T> factory;
+        private volatile T value;
+
+        Lazy(String name, Supplier<T> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        T get() {
+            T v = value;
+            if (v != null) return v;
+            synchronized (this) {
+                if (value == null) {
+                    long start = System.nanoTime();
+                    value = factory.get();
+                    record(name, System.nanoTime() - start);
+                }
+                return value;
+            }
+        }
+    }
+}
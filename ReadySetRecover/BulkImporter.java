@@ -0,0 +1,352 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/* ---------------------------
+   Bulk Importer
+   Loads reports and survivors from CSV or NDJSON files of any size.
+   The file is read through a FileChannel with a fixed buffer, so memory
+   use does not depend on the file size. Rows are routed by their type
+   to the matching DisasterManager or to the survivor registry and are
+   inserted in batches that share one journal flush.
+
+   CSV columns (an optional header line starting with "type" is skipped):
+     earthquake|typhoon|flood|fire, reporter, location, description, injury
+     survivor, name, location, health status, assistance needed
+
+   NDJSON (one object per line):
+     {"type":"flood","reporter":"...","location":"...","description":"...","injury":"...","status":"..."}
+     {"type":"survivor","name":"...","location":"...","health":"...","assistance":"..."}
+   A report's status (Active, Dispatched or Resolved; Active if absent)
+   is kept. Every row is filed as a new report or survivor with a new
+   ID: an "id" is ignored, and so is "severity", which always follows
+   from the injury.
+
+   Rejected lines are listed, with the reason, in <file>.rejected.
+   --------------------------- */
+final class BulkImporter {
+    static final int BATCH_SIZE = 1000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final int MAX_REJECTS_SHOWN = 20;
+    private static final long PROGRESS_EVERY = 100_000;
+
+    private final ReportDesk desk;
+    private final SurvivorRegistry registry;
+    private final PrintStream out;
+
+    private final Map<DisasterType, List<String[]>> pendingReports = new EnumMap<>(DisasterType.class);
+    private final List<String[]> pendingSurvivors = new ArrayList<>(BATCH_SIZE);
+    private long reportCount;
+    private long survivorCount;
+    private long rejectCount;
+    private long acceptedRows;
+    private Path rejectFile;
+    private BufferedWriter rejectLog;
+
+    public BulkImporter(ReportDesk desk, SurvivorRegistry registry, PrintStream out) {
+        this.desk = desk;
+        this.registry = registry;
+        this.out = out;
+    }
+
+    public void importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean json = name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json");
+        reportCount = 0;
+        survivorCount = 0;
+        rejectCount = 0;
+        acceptedRows = 0;
+        rejectFile = file.resolveSibling(file.getFileName() + ".rejected");
+        Files.deleteIfExists(rejectFile);
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            byte[] line = new byte[256];
+            int len = 0;
+            boolean overlong = false;
+            long lineNo = 0;
+            while (channel.read(buf) != -1) {
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    byte b = buf.get();
+                    if (b == '\n') {
+                        lineNo++;
+                        if (overlong) reject(lineNo, "line longer than " + MAX_LINE_BYTES + " bytes", "");
+                        else handleLine(line, len, lineNo, json, start);
+                        len = 0;
+                        overlong = false;
+                    } else if (len < MAX_LINE_BYTES) {
+                        if (len == line.length) line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_BYTES));
+                        line[len++] = b;
+                    } else {
+                        overlong = true;
+                    }
+                }
+                buf.clear();
+            }
+            if (len > 0 || overlong) {
+                lineNo++;
+                if (overlong) reject(lineNo, "line longer than " + MAX_LINE_BYTES + " bytes", "");
+                else handleLine(line, len, lineNo, json, start);
+            }
+            flushAll();
+        } finally {
+            if (rejectLog != null) {
+                rejectLog.close();
+                rejectLog = null;
+            }
+        }
+
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        long rows = reportCount + survivorCount;
+        out.println("-----------------------------------------------------------");
+        out.println("Imported from " + file);
+        out.println("  Reports   : " + reportCount);
+        out.println("  Survivors : " + survivorCount);
+        out.println("  Rejected  : " + rejectCount + (rejectCount > 0 ? "  (see " + rejectFile + ")" : ""));
+        out.printf("  Time      : %.2f s (%,.0f rows/sec)%n", seconds, rows / seconds);
+        out.println("-----------------------------------------------------------");
+    }
+
+    private void handleLine(byte[] bytes, int len, long lineNo, boolean json, long start) throws IOException {
+        if (len > 0 && bytes[len - 1] == '\r') len--;
+        int off = 0;
+        // UTF-8 byte order mark at the start of the file
+        if (lineNo == 1 && len >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) off = 3;
+        String text = new String(bytes, off, len - off, StandardCharsets.UTF_8);
+        String trimmed = text.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) return;
+
+        String[] fields;
+        try {
+            if (json) {
+                fields = fromJson(parseJsonObject(trimmed));
+            } else {
+                List<String> cols = parseCsvLine(text);
+                if (lineNo == 1 && cols.get(0).trim().equalsIgnoreCase("type")) return;
+                if (cols.size() != 5) throw new IllegalArgumentException("expected 5 columns, found " + cols.size());
+                fields = cols.toArray(new String[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            reject(lineNo, e.getMessage(), text);
+            return;
+        }
+
+        for (int i = 0; i < fields.length; i++) fields[i] = fields[i] == null ? "" : fields[i].trim();
+        if (fields[1].isEmpty()) {
+            reject(lineNo, "missing name", text);
+            return;
+        }
+        String[] row = Arrays.copyOfRange(fields, 1, fields.length);
+        if (fields[0].equalsIgnoreCase("survivor")) {
+            pendingSurvivors.add(row);
+            if (pendingSurvivors.size() >= BATCH_SIZE) flushSurvivors();
+        } else {
+            DisasterType type = DisasterType.parse(fields[0]);
+            if (type == null) {
+                reject(lineNo, "unknown type '" + fields[0] + "'", text);
+                return;
+            }
+            if (row.length > 4 && !row[4].isEmpty()) {
+                ReportStatus status = ReportStatus.parse(row[4]);
+                if (status == null || status == ReportStatus.DELETED) {
+                    reject(lineNo, "unknown status '" + row[4] + "'", text);
+                    return;
+                }
+            }
+            List<String[]> pending = pendingReports.computeIfAbsent(type, t -> new ArrayList<>(BATCH_SIZE));
+            pending.add(row);
+            if (pending.size() >= BATCH_SIZE) flushReports(type, pending);
+        }
+
+        if (++acceptedRows % PROGRESS_EVERY == 0) {
+            double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+            out.printf("  ... %,d rows (%,.0f rows/sec)%n", acceptedRows, acceptedRows / seconds);
+        }
+    }
+
+    // Rows are {reporter, location, description, injury[, status]}; reports that were not Active are moved on.
+    private void flushReports(DisasterType type, List<String[]> pending) {
+        if (pending.isEmpty()) return;
+        DisasterManager manager = desk.manager(type);
+        List<Report> filed = manager.insertReports(pending);
+        for (int i = 0; i < filed.size(); i++) {
+            String[] row = pending.get(i);
+            ReportStatus status = row.length > 4 ? ReportStatus.parse(row[4]) : null;
+            if (status == null || status == ReportStatus.ACTIVE) continue;
+            try {
+                manager.updateStatus(filed.get(i).getId(), status);
+            } catch (ReportNotFoundException | InvalidChoiceException e) {
+                // Only a concurrent delete gets here; the report stays as it is.
+            }
+        }
+        reportCount += pending.size();
+        pending.clear();
+    }
+
+    private void flushSurvivors() {
+        if (pendingSurvivors.isEmpty()) return;
+        registry.addAll(pendingSurvivors);
+        survivorCount += pendingSurvivors.size();
+        pendingSurvivors.clear();
+    }
+
+    private void flushAll() {
+        for (Map.Entry<DisasterType, List<String[]>> e : pendingReports.entrySet()) flushReports(e.getKey(), e.getValue());
+        flushSurvivors();
+    }
+
+    private void reject(long lineNo, String reason, String text) throws IOException {
+        rejectCount++;
+        if (rejectCount <= MAX_REJECTS_SHOWN) out.println("  Rejected line " + lineNo + ": " + reason);
+        else if (rejectCount == MAX_REJECTS_SHOWN + 1) out.println("  (further rejected lines are only written to " + rejectFile + ")");
+        if (rejectLog == null) rejectLog = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8);
+        rejectLog.write(lineNo + "\t" + reason + "\t" + text);
+        rejectLog.newLine();
+    }
+
+    /* ---------------------------
+       Line parsers
+       --------------------------- */
+
+    // One CSV record on a single line. Quoted fields may contain commas and "" for a quote.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String[] fromJson(Map<String, String> obj) {
+        String type = obj.get("type");
+        if (type == null) throw new IllegalArgumentException("missing \"type\"");
+        if (type.trim().equalsIgnoreCase("survivor")) {
+            return new String[] {type, obj.get("name"), obj.get("location"), obj.get("health"), obj.get("assistance")};
+        }
+        String reporter = obj.containsKey("reporter") ? obj.get("reporter") : obj.get("name");
+        return new String[] {type, reporter, obj.get("location"), obj.get("description"), obj.get("injury"), obj.get("status")};
+    }
+
+    // A flat JSON object. String, number, boolean and null values are accepted; nesting is not.
+    static Map<String, String> parseJsonObject(String s) {
+        Map<String, String> out = new HashMap<>();
+        int[] pos = {0};
+        skipSpace(s, pos);
+        expect(s, pos, '{');
+        skipSpace(s, pos);
+        if (peek(s, pos) == '}') {
+            pos[0]++;
+            return out;
+        }
+        while (true) {
+            skipSpace(s, pos);
+            String key = readJsonString(s, pos);
+            skipSpace(s, pos);
+            expect(s, pos, ':');
+            skipSpace(s, pos);
+            String value;
+            char c = peek(s, pos);
+            if (c == '"') {
+                value = readJsonString(s, pos);
+            } else if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("nested value for \"" + key + "\"");
+            } else {
+                int start = pos[0];
+                while (pos[0] < s.length() && ",} \t".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+                value = s.substring(start, pos[0]);
+                if (value.isEmpty()) throw new IllegalArgumentException("missing value for \"" + key + "\"");
+                if (value.equals("null")) value = null;
+            }
+            out.put(key, value);
+            skipSpace(s, pos);
+            char next = peek(s, pos);
+            pos[0]++;
+            if (next == '}') break;
+            if (next != ',') throw new IllegalArgumentException("expected ',' or '}' at column " + pos[0]);
+        }
+        skipSpace(s, pos);
+        if (pos[0] != s.length()) throw new IllegalArgumentException("trailing characters after object");
+        return out;
+    }
+
+    private static String readJsonString(String s, int[] pos) {
+        expect(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("unterminated string");
+            char c = s.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("unterminated string");
+            char e = s.charAt(pos[0]++);
+            switch (e) {
+                case '"', '\\', '/' -> sb.append(e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("bad \\u escape");
+                    try {
+                        sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("bad \\u escape");
+                    }
+                    pos[0] += 4;
+                }
+                default -> throw new IllegalArgumentException("bad escape \\" + e);
+            }
+        }
+    }
+
+    private static char peek(String s, int[] pos) {
+        if (pos[0] >= s.length()) throw new IllegalArgumentException("unexpected end of line");
+        return s.charAt(pos[0]);
+    }
+
+    private static void expect(String s, int[] pos, char c) {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("expected '" + c + "' at column " + (pos[0] + 1));
+        pos[0]++;
+    }
+
+    private static void skipSpace(String s, int[] pos) {
+        while (pos[0] < s.length() && Character.isWhitespace(s.charAt(pos[0]))) pos[0]++;
+    }
+}
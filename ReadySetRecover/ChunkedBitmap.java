@@ -0,0 +1,90 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* ---------------------------
+   Chunked bitmap
+   A set of non-negative longs (report arrival numbers) kept as bits in
+   chunks of 4096. A chunk exists only where some bit was ever set,
+   so a sparse set (the reports of one town) costs memory and scan
+   time in proportion to where its members are, not to how many
+   reports exist. Safe for concurrent use; like the n-gram postings,
+   emptied chunks are left in place.
+   --------------------------- */
+final class ChunkedBitmap {
+    private static final int CHUNK_BITS = 12;
+    private static final int WORDS = (1 << CHUNK_BITS) / 64;
+
+    private final ConcurrentSkipListMap<Long, AtomicLongArray> chunks = new ConcurrentSkipListMap<>();
+
+    public void set(long i) {
+        AtomicLongArray words = chunks.computeIfAbsent(i >>> CHUNK_BITS, c -> new AtomicLongArray(WORDS));
+        int w = wordIndex(i);
+        long bit = 1L << i;
+        long old;
+        do {
+            old = words.get(w);
+        } while ((old & bit) == 0 && !words.compareAndSet(w, old, old | bit));
+    }
+
+    public void clear(long i) {
+        AtomicLongArray words = chunks.get(i >>> CHUNK_BITS);
+        if (words == null) return;
+        int w = wordIndex(i);
+        long bit = 1L << i;
+        long old;
+        do {
+            old = words.get(w);
+        } while ((old & bit) != 0 && !words.compareAndSet(w, old, old & ~bit));
+    }
+
+    public boolean get(long i) {
+        AtomicLongArray words = chunks.get(i >>> CHUNK_BITS);
+        return words != null && (words.get(wordIndex(i)) & (1L << i)) != 0;
+    }
+
+    /* The first member at or after from, or -1. */
+    public long nextSetBit(long from) {
+        return nextSetBit(this, null, from);
+    }
+
+    /* The first member of both a and b at or after from, or -1. Only chunks present in both are scanned. */
+    public static long nextSetBitAnd(ChunkedBitmap a, ChunkedBitmap b, long from) {
+        return nextSetBit(a, b, from);
+    }
+
+    private static long nextSetBit(ChunkedBitmap a, ChunkedBitmap b, long from) {
+        if (from < 0) from = 0;
+        long chunk = from >>> CHUNK_BITS;
+        while (true) {
+            Map.Entry<Long, AtomicLongArray> ea = a.chunks.ceilingEntry(chunk);
+            if (ea == null) return -1;
+            chunk = ea.getKey();
+            AtomicLongArray wb = null;
+            if (b != null) {
+                Map.Entry<Long, AtomicLongArray> eb = b.chunks.ceilingEntry(chunk);
+                if (eb == null) return -1;
+                if (eb.getKey() != chunk) {
+                    chunk = eb.getKey();
+                    continue;
+                }
+                wb = eb.getValue();
+            }
+            AtomicLongArray wa = ea.getValue();
+            long base = chunk << CHUNK_BITS;
+            int w = from > base ? wordIndex(from) : 0;
+            for (; w < WORDS; w++) {
+                long word = wa.get(w);
+                if (wb != null) word &= wb.get(w);
+                long wordBase = base + (long) w * 64;
+                if (from > wordBase) word &= -1L << (from - wordBase);
+                if (word != 0) return wordBase + Long.numberOfTrailingZeros(word);
+            }
+            chunk++;
+        }
+    }
+
+    private static int wordIndex(long i) {
+        return (int) (i >>> 6) & (WORDS - 1);
+    }
+}
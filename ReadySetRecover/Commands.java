@@ -0,0 +1,424 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/* ---------------------------
+   Headless commands
+   The report desk, hospital directory and survivor registry without
+   the menus, for scripts and scheduled jobs:
+
+     java ReadySetRecover insert <type> <reporter> <location> <description> <injury>
+     java ReadySetRecover search <report ID or name> [limit]
+     java ReadySetRecover delete <report ID>
+     java ReadySetRecover status <report ID> <Active|Dispatched|Resolved>
+     java ReadySetRecover list <type> [status] [location] [limit] [cursor]
+     java ReadySetRecover suggest <type> <situation 1-4> [location]
+     java ReadySetRecover survivor <name> <location> <health status> <assistance needed>
+     java ReadySetRecover export [file]
+     java ReadySetRecover rematch
+     java ReadySetRecover batch [file]
+
+   Every command answers with one line of JSON, {"ok":true,...} or
+   {"ok":false,"error":"..."}. Reports and survivors are written as the
+   same objects the bulk importer reads, so "export" output can be fed
+   to --import to load another station or a fresh install. Imported
+   reports keep their status but are filed anew with new IDs; importing
+   an export back into the store it came from duplicates every record.
+
+   "batch" runs one command per line (fields separated by commas, quoted
+   as in CSV) from the file, or from standard input without one, in one
+   process and one journal. A run of inserts of the same disaster type
+   shares one journal flush, the way the bulk importer does; a run ends
+   at another command, after BulkImporter.BATCH_SIZE inserts, or when no
+   more input is waiting, so a script feeding the batch line by line
+   still gets each answer right away.
+
+   The exit status is 0 if every command succeeded and 1 otherwise.
+   --------------------------- */
+final class Commands {
+    private static final Set<String> NAMES = Set.of("insert", "search", "delete", "status", "list", "suggest", "survivor", "export", "rematch", "batch");
+    private static final int DEFAULT_LIST_LIMIT = 1000;
+
+    private final AppContext context;
+    private final PrintStream out;
+    private final StringBuilder json = new StringBuilder(512);
+    private int failures;
+
+    // Inserts waiting to be written as one batch: the type and {reporter, location, description, injury} rows.
+    private DisasterType pendingType;
+    private final List<String[]> pendingRows = new ArrayList<>();
+
+    Commands(AppContext context, PrintStream out) {
+        this.context = context;
+        this.out = out;
+    }
+
+    static boolean isCommand(String name) {
+        return NAMES.contains(name);
+    }
+
+    /* Runs the command line and returns the exit status. */
+    static int main(String[] args) {
+        OutputStream stdout = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);
+        PrintStream out = new PrintStream(stdout, false, StandardCharsets.UTF_8);
+        Commands commands = new Commands(new AppContext(), out);
+        try {
+            if (args[0].equals("batch")) {
+                if (args.length > 2) {
+                    commands.fail("batch", "usage: batch [file]");
+                } else if (args.length == 2) {
+                    try (InputStream in = Files.newInputStream(Paths.get(args[1]))) {
+                        commands.batch(in);
+                    } catch (IOException e) {
+                        commands.fail("batch", "cannot read " + args[1] + ": " + e.getMessage());
+                    }
+                } else {
+                    commands.batch(System.in);
+                }
+            } else {
+                commands.execute(Arrays.asList(args));
+            }
+            return commands.failures == 0 ? 0 : 1;
+        } finally {
+            out.flush();
+        }
+    }
+
+    /* Runs one command per line of the input until it ends. */
+    void batch(InputStream in) {
+        LineReader lines = new LineReader(in, StandardCharsets.UTF_8, out);
+        try {
+            while (true) {
+                String line = lines.nextLine();
+                if (line.isBlank() || line.startsWith("#")) continue;
+                List<String> fields;
+                try {
+                    fields = BulkImporter.parseCsvLine(line);
+                } catch (IllegalArgumentException e) {
+                    flushInserts();
+                    fail("batch", e.getMessage());
+                    continue;
+                }
+                for (int i = 0; i < fields.size(); i++) fields.set(i, fields.get(i).trim());
+                if (fields.get(0).equals("insert") && fields.size() == 6) {
+                    queueInsert(fields);
+                    if (!lines.ready()) flushInserts();
+                } else {
+                    flushInserts();
+                    execute(fields);
+                }
+            }
+        } catch (NoSuchElementException endOfInput) {
+            flushInserts();
+        }
+    }
+
+    /* ---- Commands ---- */
+
+    void execute(List<String> args) {
+        String command = args.get(0);
+        try {
+            switch (command) {
+                case "insert" -> {
+                    expectArgs(args, 6, 6, "insert <type> <reporter> <location> <description> <injury>");
+                    Report r = manager(args.get(1)).insertReport(args.get(2), args.get(3), args.get(4), args.get(5));
+                    begin(command).append(",\"report\":");
+                    report(r);
+                    end();
+                }
+                case "search" -> search(args);
+                case "delete" -> {
+                    expectArgs(args, 2, 2, "delete <report ID>");
+                    String id = args.get(1);
+                    managerFor(id).deleteReport(id);
+                    begin(command).append(",\"id\":");
+                    string(id.trim().toUpperCase(Locale.ROOT));
+                    end();
+                }
+                case "status" -> {
+                    expectArgs(args, 3, 3, "status <report ID> <Active|Dispatched|Resolved>");
+                    ReportStatus next = ReportStatus.parse(args.get(2));
+                    if (next == null || next == ReportStatus.DELETED) throw new InvalidChoiceException("Unknown status: " + args.get(2));
+                    Report r = managerFor(args.get(1)).updateStatus(args.get(1), next);
+                    begin(command).append(",\"report\":");
+                    report(r);
+                    end();
+                }
+                case "list" -> list(args);
+                case "suggest" -> suggest(args);
+                case "survivor" -> {
+                    expectArgs(args, 5, 5, "survivor <name> <location> <health status> <assistance needed>");
+                    Survivor s = context.survivors().add(args.get(1), args.get(2), args.get(3), args.get(4));
+                    begin(command).append(",\"survivor\":");
+                    survivor(s);
+                    end();
+                }
+                case "export" -> {
+                    expectArgs(args, 1, 2, "export [file]");
+                    export(args.size() == 2 ? Paths.get(args.get(1)) : null);
+                }
+                case "rematch" -> {
+                    expectArgs(args, 1, 1, "rematch");
+                    PersonMatcher.Summary m = context.matcher().rematch();
+                    begin(command).append(",\"reports\":").append(m.reports).append(",\"survivors\":").append(m.survivors)
+                            .append(",\"blocks\":").append(m.blocks).append(",\"compared\":").append(m.comparisons)
+                            .append(",\"links\":").append(m.links).append(",\"millis\":").append(m.millis);
+                    end();
+                }
+                default -> throw new InvalidChoiceException("Unknown command: " + command);
+            }
+        } catch (ReportNotFoundException | InvalidChoiceException e) {
+            fail(command, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            fail(command, e.toString());
+        }
+    }
+
+    private void search(List<String> args) throws InvalidChoiceException {
+        expectArgs(args, 2, 3, "search <report ID or name> [limit]");
+        int limit = args.size() == 3 ? number(args.get(2)) : PersonFinder.DEFAULT_LIMIT;
+        PersonFinder.Results results = new PersonFinder(context.desk(), context.survivors()).search(args.get(1), limit);
+        begin("search").append(",\"hits\":[");
+        List<SearchHit> hits = results.getHits();
+        for (int i = 0; i < hits.size(); i++) {
+            if (i > 0) json.append(',');
+            SearchHit h = hits.get(i);
+            if (h.getReport() != null) report(h.getReport());
+            else survivor(h.getSurvivor());
+        }
+        json.append(']');
+        if (!results.isComplete()) {
+            json.append(",\"missing\":[");
+            for (int i = 0; i < results.getMissing().size(); i++) {
+                if (i > 0) json.append(',');
+                string(results.getMissing().get(i));
+            }
+            json.append(']');
+        }
+        end();
+    }
+
+    private void list(List<String> args) throws InvalidChoiceException {
+        expectArgs(args, 2, 6, "list <type> [status] [location] [limit] [cursor]");
+        DisasterManager manager = manager(args.get(1));
+        ReportFilter filter = ReportFilter.parse(args.size() > 2 ? args.get(2) : "", args.size() > 3 ? args.get(3) : "");
+        int limit = args.size() > 4 ? number(args.get(4)) : DEFAULT_LIST_LIMIT;
+        long cursor = args.size() > 5 ? longNumber(args.get(5)) : 0;
+        ReportPage page = manager.listReports(filter, cursor, limit);
+        begin("list").append(",\"reports\":[");
+        List<Report> reports = page.getReports();
+        for (int i = 0; i < reports.size(); i++) {
+            if (i > 0) json.append(',');
+            report(reports.get(i));
+        }
+        json.append("],\"cursor\":").append(page.getNextCursor()).append(",\"more\":").append(page.hasMore());
+        end();
+    }
+
+    private void suggest(List<String> args) throws InvalidChoiceException {
+        expectArgs(args, 3, 4, "suggest <type> <situation 1-4> [location]");
+        DisasterManager manager = manager(args.get(1));
+        List<String> advice = manager.getSafetySuggestions(number(args.get(2)));
+        String location = args.size() == 4 ? args.get(3) : "";
+        begin("suggest").append(",\"suggestions\":[");
+        for (int i = 0; i < advice.size(); i++) {
+            if (i > 0) json.append(',');
+            string(advice.get(i));
+        }
+        json.append("],\"places\":[");
+        List<String> places = manager.suggestPlaces(location, 4);
+        for (int i = 0; i < places.size(); i++) {
+            if (i > 0) json.append(',');
+            string(places.get(i));
+        }
+        json.append("],\"hospitals\":[");
+        List<Hospital> hospitals = manager.suggestHospitalsNearby(location);
+        for (int i = 0; i < hospitals.size(); i++) {
+            Hospital h = hospitals.get(i);
+            json.append(i > 0 ? ",{\"name\":" : "{\"name\":");
+            string(h.getName());
+            json.append(",\"city\":");
+            string(h.getCity());
+            if (h.getExtra() != null && !h.getExtra().isEmpty()) {
+                json.append(",\"details\":");
+                string(h.getExtra());
+            }
+            json.append('}');
+        }
+        json.append(']');
+        end();
+    }
+
+    // Live reports of every type, then survivors, one object per line. To a file, answered by one line of counts.
+    private void export(Path file) throws IOException {
+        PrintStream target = file == null ? out
+                : new PrintStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16), false, StandardCharsets.UTF_8);
+        long reports = 0, survivors = 0;
+        try {
+            for (DisasterManager m : context.desk().managers()) {
+                for (Report r : m.getAllReports()) {
+                    json.setLength(0);
+                    report(r);
+                    target.append(json).append('\n');
+                    reports++;
+                }
+            }
+            for (Survivor s : context.survivors().all()) {
+                json.setLength(0);
+                survivor(s);
+                target.append(json).append('\n');
+                survivors++;
+            }
+        } finally {
+            if (file != null) target.close();
+        }
+        if (target.checkError()) throw new IOException("write failed" + (file != null ? ": " + file : ""));
+        if (file != null) {
+            begin("export").append(",\"file\":");
+            string(file.toString());
+            json.append(",\"reports\":").append(reports).append(",\"survivors\":").append(survivors);
+            end();
+        }
+    }
+
+    /* ---- Batched inserts ---- */
+
+    private void queueInsert(List<String> fields) {
+        DisasterType type = DisasterType.parse(fields.get(1));
+        if (type == null) {
+            flushInserts();
+            fail("insert", "Unknown disaster type: " + fields.get(1));
+            return;
+        }
+        if (type != pendingType || pendingRows.size() == BulkImporter.BATCH_SIZE) flushInserts();
+        pendingType = type;
+        pendingRows.add(new String[] {fields.get(2), fields.get(3), fields.get(4), fields.get(5)});
+    }
+
+    private void flushInserts() {
+        if (pendingRows.isEmpty()) return;
+        try {
+            for (Report r : context.desk().manager(pendingType).insertReports(pendingRows)) {
+                begin("insert").append(",\"report\":");
+                report(r);
+                end();
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < pendingRows.size(); i++) fail("insert", e.toString());
+        }
+        pendingRows.clear();
+        pendingType = null;
+    }
+
+    /* ---- Helpers ---- */
+
+    private DisasterManager manager(String type) throws InvalidChoiceException {
+        DisasterType t = DisasterType.parse(type);
+        if (t == null) throw new InvalidChoiceException("Unknown disaster type: " + type);
+        return context.desk().manager(t);
+    }
+
+    private DisasterManager managerFor(String id) throws ReportNotFoundException {
+        long key = ReportId.parse(id);
+        if (key == ReportId.INVALID) throw new ReportNotFoundException("Not a report ID: " + id);
+        return context.desk().manager(ReportId.type(key));
+    }
+
+    private static void expectArgs(List<String> args, int min, int max, String usage) throws InvalidChoiceException {
+        if (args.size() < min || args.size() > max) throw new InvalidChoiceException("usage: " + usage);
+    }
+
+    private static int number(String text) throws InvalidChoiceException {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidChoiceException("Not a number: " + text);
+        }
+    }
+
+    private static long longNumber(String text) throws InvalidChoiceException {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidChoiceException("Not a number: " + text);
+        }
+    }
+
+    private void fail(String command, String error) {
+        failures++;
+        json.setLength(0);
+        json.append("{\"ok\":false,\"command\":");
+        string(command);
+        json.append(",\"error\":");
+        string(error);
+        end();
+    }
+
+    private StringBuilder begin(String command) {
+        json.setLength(0);
+        return json.append("{\"ok\":true,\"command\":\"").append(command).append('"');
+    }
+
+    private void end() {
+        json.append("}\n");
+        out.append(json);
+    }
+
+    // In the bulk importer's format, plus the fields only the system sets.
+    private void report(Report r) {
+        json.append("{\"type\":\"").append(ReportId.type(r.getKey()).name().toLowerCase(Locale.ROOT)).append("\",\"id\":");
+        string(r.getId());
+        json.append(",\"reporter\":");
+        string(r.getReporter());
+        json.append(",\"location\":");
+        string(r.getLocation());
+        json.append(",\"description\":");
+        string(r.getDescription());
+        json.append(",\"injury\":");
+        string(r.getInjuryType());
+        json.append(",\"severity\":\"").append(r.getSeverity().getLabel())
+                .append("\",\"status\":\"").append(r.getStatus().getLabel()).append("\"}");
+    }
+
+    private void survivor(Survivor s) {
+        json.append("{\"type\":\"survivor\",\"id\":").append(s.getId()).append(",\"name\":");
+        string(s.getName());
+        json.append(",\"location\":");
+        string(s.getLocation());
+        json.append(",\"health\":");
+        string(s.getHealthStatus());
+        json.append(",\"assistance\":");
+        string(s.getAssistanceNeeded());
+        json.append('}');
+    }
+
+    private void string(String s) {
+        json.append('"');
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> json.append("\\\"");
+                    case '\\' -> json.append("\\\\");
+                    case '\n' -> json.append("\\n");
+                    case '\r' -> json.append("\\r");
+                    case '\t' -> json.append("\\t");
+                    default -> {
+                        if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                        else json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
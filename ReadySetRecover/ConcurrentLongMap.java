@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/* ---------------------------
+   Concurrent long map
+   A map from primitive long keys to values, for lookups by report ID
+   without boxing the key or comparing strings. The keys are spread
+   over independently locked stripes, so threads working on different
+   keys rarely wait for each other, and lookups take no lock at all.
+   Each stripe is an open-addressing table with linear probing whose
+   slots hold immutable key/value nodes; a removed key leaves a marker
+   that lookups probe past, and a full table is rebuilt into a new one
+   that is then published. Writers lock their stripe. 0 cannot be a key
+   (no report ID is ever 0).
+   --------------------------- */
+final class ConcurrentLongMap<V> {
+    private static final int STRIPES = 64;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentLongMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe<>();
+    }
+
+    public V get(long key) {
+        return stripe(key).get(key);
+    }
+
+    /* Returns the previous value, or null. */
+    public V put(long key, V value) {
+        if (key == 0) throw new IllegalArgumentException("0 cannot be a key");
+        return stripe(key).put(key, value);
+    }
+
+    /* Returns the removed value, or null if the key was absent. */
+    public V remove(long key) {
+        return stripe(key).remove(key);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> s : stripes) size += s.size();
+        return size;
+    }
+
+    private Stripe<V> stripe(long key) {
+        return stripes[(int) (mix(key) >>> 58)];
+    }
+
+    // Spreads sequential IDs over all stripes and slots.
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // A key and its value; a slot is changed by putting a new node in it, so a reader sees both or neither.
+    private static final class Node<V> {
+        final long key;
+        final V value;
+
+        Node(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Stripe<V> {
+        // Left where a key was removed, so lookups probe on past it.
+        private static final Node<Object> REMOVED = new Node<>(0, null);
+
+        // Replaced, never changed in place, when the table is rebuilt.
+        private volatile AtomicReferenceArray<Node<V>> table = new AtomicReferenceArray<>(16);
+        // Guarded by this: live keys, and slots in use including REMOVED ones.
+        private int size;
+        private int used;
+
+        synchronized int size() {
+            return size;
+        }
+
+        /* Takes no lock: a lookup racing a put or remove of the same key sees it either before or after. */
+        V get(long key) {
+            if (key == 0) return null;
+            AtomicReferenceArray<Node<V>> t = table;
+            int mask = t.length() - 1;
+            for (int i = (int) mix(key) & mask; ; i = (i + 1) & mask) {
+                Node<V> n = t.get(i);
+                if (n == null) return null;
+                if (n.key == key) return n.value;
+            }
+        }
+
+        synchronized V put(long key, V value) {
+            AtomicReferenceArray<Node<V>> t = table;
+            int mask = t.length() - 1;
+            int free = -1;
+            int i = (int) mix(key) & mask;
+            for (Node<V> n; (n = t.get(i)) != null; i = (i + 1) & mask) {
+                if (n.key == key) {
+                    t.set(i, new Node<>(key, value));
+                    return n.value;
+                }
+                if (n == REMOVED && free < 0) free = i;
+            }
+            if (free >= 0) {
+                t.set(free, new Node<>(key, value));
+            } else {
+                t.set(i, new Node<>(key, value));
+                used++;
+            }
+            size++;
+            if (used * 4 > t.length() * 3) rebuild();
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V remove(long key) {
+            if (key == 0) return null;
+            AtomicReferenceArray<Node<V>> t = table;
+            int mask = t.length() - 1;
+            for (int i = (int) mix(key) & mask; ; i = (i + 1) & mask) {
+                Node<V> n = t.get(i);
+                if (n == null) return null;
+                if (n.key == key) {
+                    t.set(i, (Node<V>) REMOVED);
+                    size--;
+                    return n.value;
+                }
+            }
+        }
+
+        // Copies the live keys into a new table, twice as large if they fill more than half of this one,
+        // and publishes it; lookups still on the old table find what it held.
+        private void rebuild() {
+            AtomicReferenceArray<Node<V>> old = table;
+            int length = size * 2 > old.length() ? old.length() * 2 : old.length();
+            AtomicReferenceArray<Node<V>> t = new AtomicReferenceArray<>(length);
+            int mask = length - 1;
+            for (int k = 0; k < old.length(); k++) {
+                Node<V> n = old.get(k);
+                if (n == null || n == REMOVED) continue;
+                int i = (int) mix(n.key) & mask;
+                while (t.get(i) != null) i = (i + 1) & mask;
+                t.set(i, n);
+            }
+            used = size;
+            table = t;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/* ---------------------------
+   Console Server
+   Serves the console menus over a plain-text line protocol on the
+   loopback interface (connect with e.g. "nc localhost 7878").
+   Each connection runs in its own thread with its own Session; on
+   Java 21 and later these are virtual threads, so hundreds of idle
+   operators cost almost nothing.
+   --------------------------- */
+final class ConsoleServer {
+    static final int DEFAULT_PORT = 7878;
+
+    private final int port;
+    private final Consumer<Session> sessionHandler;
+
+    public ConsoleServer(int port, Consumer<Session> sessionHandler) {
+        this.port = port;
+        this.sessionHandler = sessionHandler;
+    }
+
+    public void serve() throws IOException {
+        ExecutorService sessions = newSessionExecutor();
+        try (ServerSocket server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress())) {
+            System.out.println("READY. SET. RECOVER! listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                sessions.execute(() -> handle(socket));
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            Session session = Session.remote(socket.getInputStream(), new BufferedOutputStream(socket.getOutputStream()));
+            try {
+                sessionHandler.accept(session);
+            } catch (NoSuchElementException | IllegalStateException disconnected) {
+                // The operator closed the connection mid-menu.
+            } finally {
+                session.out().flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Session ended: " + e.getMessage());
+        }
+    }
+
+    // Virtual threads when the runtime has them (Java 21+), plain threads otherwise.
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
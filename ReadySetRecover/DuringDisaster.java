@@ -1,565 +1,1345 @@
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-
-/* ---------------------------
-   Custom Exceptions
-   --------------------------- */
-class ReportNotFoundException extends Exception {
-    public ReportNotFoundException(String message) { super(message); }
-}
-
-class InvalidChoiceException extends Exception {
-    public InvalidChoiceException(String message) { super(message); }
-}
-
-/* ---------------------------
-   Simple Hospital model (Encapsulation)
-   --------------------------- */
-class Hospital {
-    private final String name;
-    private final String city;
-    private final String extra;
-
-    public Hospital(String name, String city) {
-        this(name, city, "");
-    }
-
-    public Hospital(String name, String city, String extra) {
-        this.name = name;
-        this.city = city;
-        this.extra = extra;
-    }
-
-    public String getName() { return name; }
-    public String getCity() { return city; }
-    public String getExtra() { return extra; }
-
-    @Override
-    public String toString() {
-        if (extra == null || extra.isEmpty()) return name + " " + city;
-        return name + " " + city + " " + extra;
-    }
-}
-
-/* ---------------------------
-   Report model (Encapsulation)
-   --------------------------- */
-class Report {
-    private final String id;
-    private final String reporter;
-    private final String location;
-    private final String description;
-    private final String injuryType;
-    private String status;
-
-    public Report(String id, String reporter, String location, String description, String injuryType) {
-        this.id = id;
-        this.reporter = reporter;
-        this.location = location;
-        this.description = description;
-        this.injuryType = injuryType;
-        this.status = "Active";
-    }
-
-    public String getId() { return id; }
-    public String getReporter() { return reporter; }
-    public String getLocation() { return location; }
-    public String getDescription() { return description; }
-    public String getInjuryType() { return injuryType; }
-    public String getStatus() { return status; }
-    public void setStatus(String s) { this.status = s; }
-
-    @Override
-    public String toString() {
-        return String.format("Report ID : %s\nReporter  : %s\nLocation  : %s\nDescription: %s\nInjury    : %s\nStatus    : %s",
-                id, reporter, location, description, injuryType, status);
-    }
-}
-
-/* ---------------------------
-   Abstract DisasterManager (Abstraction)
-   --------------------------- */
-abstract class DisasterManager {
-    protected final Map<String, Report> reports = new LinkedHashMap<>();
-    protected final AtomicInteger counter = new AtomicInteger(0);
-    protected final String codePrefix;
-    protected final HospitalDirectory hospitalDirectory;
-
-    public DisasterManager(String codePrefix, HospitalDirectory hd) {
-        this.codePrefix = codePrefix;
-        this.hospitalDirectory = hd;
-    }
-
-    protected String createId() {
-        int n = counter.incrementAndGet();
-        return String.format("%s%03d", codePrefix, n);
-    }
-
-    public Report insertReport(String reporter, String location, String desc, String injury) {
-        String id = createId();
-        Report r = new Report(id, reporter, location, desc, injury);
-        reports.put(id, r);
-        return r;
-    }
-
-    public Report searchByIdOrName(String key) throws ReportNotFoundException {
-        if (key == null || key.trim().isEmpty()) throw new ReportNotFoundException("Empty search key.");
-        String k = key.trim();
-        for (String id : reports.keySet()) {
-            if (id.equalsIgnoreCase(k)) return reports.get(id);
-        }
-        for (Report r : reports.values()) {
-            if (r.getReporter().equalsIgnoreCase(k)) return r;
-        }
-        for (Report r : reports.values()) {
-            if (r.getReporter().toLowerCase().contains(k.toLowerCase())) return r;
-        }
-        throw new ReportNotFoundException("No report found matching: " + key);
-    }
-
-    public List<Report> getAllReports() {
-        return new ArrayList<>(reports.values());
-    }
-
-    public boolean deleteReport(String id) throws ReportNotFoundException {
-        if (id == null || id.trim().isEmpty()) throw new ReportNotFoundException("Empty report ID.");
-        String match = null;
-        for (String key : reports.keySet()) {
-            if (key.equalsIgnoreCase(id.trim())) { match = key; break; }
-        }
-        if (match == null) throw new ReportNotFoundException("Report ID not found: " + id);
-        reports.get(match).setStatus("Deleted");
-        reports.remove(match);
-        return true;
-    }
-
-    public abstract List<String> getSafetySuggestions(int situationChoice) throws InvalidChoiceException;
-
-    public List<Hospital> suggestHospitalsNearby(String location) {
-        return hospitalDirectory.findHospitalsByCity(location);
-    }
-}
-
-/* ---------------------------
-   Concrete Managers
-   --------------------------- */
-class EarthquakeManager extends DisasterManager {
-    public EarthquakeManager(HospitalDirectory hd) { super("EQ", hd); }
-
-    @Override
-    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
-        switch (choice) {
-            case 1 -> {
-                return Arrays.asList(
-                        "Stop any bleeding with direct pressure.",
-                        "Immobilize fractures if trained to do so.",
-                        "Call for emergency medical help."
-                );
-            }
-            case 2 -> {
-                return Arrays.asList(
-                        "Keep the patient still and monitor breathing.",
-                        "Control bleeding and avoid moving the neck/head.",
-                        "Transport to nearest hospital immediately."
-                );
-            }
-            case 3 -> {
-                return Arrays.asList(
-                        "Move person to a dry, warm place.",
-                        "Remove wet clothing and cover with blankets.",
-                        "Give warm fluids if conscious and seek medical care."
-                );
-            }
-            case 4 -> {
-                return Arrays.asList(
-                        "Do not touch the person if still in contact with the electrical source.",
-                        "Turn off power before approaching.",
-                        "Check breathing and pulse; perform CPR if needed."
-                );
-            }
-            default -> throw new InvalidChoiceException("Invalid situation for Earthquake suggestions.");
-        }
-    }
-}
-
-class TyphoonManager extends DisasterManager {
-    public TyphoonManager(HospitalDirectory hd) { super("TYP", hd); }
-
-    @Override
-    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
-        switch (choice) {
-            case 1 -> {
-                return Arrays.asList("Move the injured to safety and apply first aid.", "Get professional medical help.");
-            }
-            case 2 -> {
-                return Arrays.asList("Avoid moving the person unless danger is imminent.", "Stabilize head/neck if suspected trauma.");
-            }
-            case 3 -> {
-                return Arrays.asList("Dry and warm the victim; prevent further heat loss.");
-            }
-            case 4 -> {
-                return Arrays.asList("Do not touch person while in contact with electricity; turn off power first.", "Call emergency services.");
-            }
-            default -> throw new InvalidChoiceException("Invalid situation for Typhoon suggestions.");
-        }
-    }
-}
-
-class FloodManager extends DisasterManager {
-    public FloodManager(HospitalDirectory hd) { super("FLD", hd); }
-
-    @Override
-    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
-        switch (choice) {
-            case 1 -> {
-                return Arrays.asList("Prioritize breathing and bleeding control.", "Avoid moving victims in water unless necessary.");
-            }
-            case 2 -> {
-                return Arrays.asList("Check if the person is breathing.", "Perform CPR immediately if necessary.", "Keep them warm and transport urgently.");
-            }
-            case 3 -> {
-                return Arrays.asList("Avoid water near downed power lines.", "Inform power company and emergency responders.");
-            }
-            case 4 -> {
-                return Arrays.asList("Avoid ingesting flood water.", "Seek medical advice for wounds exposed to contaminated water.");
-            }
-            default -> throw new InvalidChoiceException("Invalid situation for Flood suggestions.");
-        }
-    }
-}
-
-class FireManager extends DisasterManager {
-    public FireManager(HospitalDirectory hd) { super("FIR", hd); }
-
-    @Override
-    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
-        switch (choice) {
-            case 1 -> {
-                return Arrays.asList("Move the injured to fresh air.", "Control bleeding and call emergency services.");
-            }
-            case 2 -> {
-                return Arrays.asList("Cool burns with running water for 10-20 minutes.", "Avoid applying creams; seek medical care for severe burns.");
-            }
-            case 3 -> {
-                return Arrays.asList("Move to fresh air immediately.", "Loosen clothing around chest and neck; perform rescue breathing if needed.");
-            }
-            case 4 -> {
-                return Arrays.asList("Check breathing and pulse; begin CPR if necessary.", "Call emergency responders immediately.");
-            }
-            default -> throw new InvalidChoiceException("Invalid situation for Fire suggestions.");
-        }
-    }
-}
-
-/* ---------------------------
-   Hospital Directory
-   --------------------------- */
-class HospitalDirectory {
-    private final Map<String, List<Hospital>> hospitalsByCity = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-
-    public HospitalDirectory() {
-        populateHospitals();
-    }
-
-    private void addHospital(String city, String name) {
-        addHospital(city, name, "");
-    }
-
-    private void addHospital(String city, String name, String extra) {
-        hospitalsByCity.computeIfAbsent(city.trim(), k -> new ArrayList<>()).add(new Hospital(name, city, extra));
-    }
-
-    private void populateHospitals() {
-        addHospital("Batangas City", "Batangas Medical Center");
-        addHospital("Batangas City", "Golden Gate Batangas Hospital, Inc.");
-        addHospital("Batangas City", "St. Patrick's Hospital Medical Center");
-        addHospital("Batangas City", "Batangas Health Care Hospital (Jesus of Nazareth)");
-        addHospital("Batangas City", "Batangas Healthcare Specialists Medical Center");
-        addHospital("Batangas City", "United Doctors of St. Camillus de Lellis Hospital");
-        addHospital("Lipa City", "Mary Mediatrix Medical Center");
-        addHospital("Lipa City", "Metro Lipa Medical Center");
-        addHospital("Lipa City", "Ospital ng Lipa (Lipa City District Hospital)");
-        addHospital("Lipa City", "Divine Love General Hospital");
-        addHospital("Lipa City", "N.L. Villa Memorial Medical Center");
-        addHospital("Lipa City", "Lipa Medix Medical Center");
-        addHospital("Lipa City", "San Antonio Medical Center of Lipa");
-        addHospital("Lipa City", "San Antonio Life Care Corporation");
-        addHospital("Tanauan City", "Daniel O. Mercado Medical Center");
-        addHospital("Tanauan City", "C.P. Reyes Hospital (Tanauan)");
-        addHospital("Bauan", "Bauan Doctors General Hospital");
-        addHospital("Bauan", "Dr. Mario D. Bejasa General Hospital");
-        addHospital("Balayan", "Metro Balayan Medical Center");
-        addHospital("Balayan", "Don Manuel Lopez Memorial District Hospital");
-        addHospital("Balayan", "Medical Center Western Batangas");
-        addHospital("Balayan", "Balayan Bayview Hospital & Medical Center");
-        addHospital("Nasugbu", "Apacible Memorial District Hospital (Nasugbu)");
-        addHospital("Nasugbu", "Nasugbu Doctors Hospital");
-        addHospital("Nasugbu", "Central Azucarera Don Pedro Hospital");
-        addHospital("Nasugbu", "Jabez Medical Center (Nasugbu)");
-        addHospital("Lemery", "Lemery Doctors Hospital");
-        addHospital("Lemery", "Metro Lemery Medical Center");
-        addHospital("Lemery", "Our Lady of Caysasay Medical Center, Inc.");
-        addHospital("Sto. Tomas", "Sto. Tomas Doctors Hospital and Medical Center");
-        addHospital("Sto. Tomas", "St. Frances Cabrini Medical Center");
-        addHospital("San Jose", "Metro San Jose Medical Center");
-        addHospital("San Jose", "San Jose Doctors General Hospital");
-        addHospital("Talisay", "Talisay Community Hospital");
-        addHospital("Padre Garcia", "Padre Garcia District Hospital");
-        addHospital("Rosario", "Rosario Community Hospital");
-        addHospital("Calaca", "Ospital ng Calaca");
-        addHospital("Calatagan", "Calatagan Medicare Hospital");
-        addHospital("Tuy", "Tuy District Hospital");
-        addHospital("Lian", "Lian District Hospital");
-        addHospital("Mabini", "Mabini General Hospital");
-        addHospital("Mabini", "Zigzag Hospital (Mabini)");
-        addHospital("Lobo", "Lobo Municipal Hospital");
-        addHospital("San Pascual", "San Antonio Life Care Corporation");
-        addHospital("San Pascual", "San Pascual Baylon Hospital");
-        addHospital("Malvar", "Malvar General Hospital");
-        addHospital("Ibaan", "Ibaan District Hospital");
-        addHospital("San Juan", "San Juan District Hospital");
-        addHospital("Taysan", "Taysan Community Hospital");
-        addHospital("Agoncillo", "Agoncillo Medicare Hospital");
-        addHospital("Mataasnakahoy", "Mataasnakahoy Community Hospital");
-    }
-
-    public List<Hospital> findHospitalsByCity(String city) {
-        if (city == null || city.trim().isEmpty()) {
-            return getTopHospitals();
-        }
-        String key = city.trim();
-        List<Hospital> local = hospitalsByCity.get(key);
-        if (local != null && !local.isEmpty()) return local;
-        for (String c : hospitalsByCity.keySet()) {
-            if (c.equalsIgnoreCase(key) || c.toLowerCase().contains(key.toLowerCase())) {
-                return hospitalsByCity.get(c);
-            }
-        }
-        return getTopHospitals();
-    }
-
-    public List<Hospital> getTopHospitals() {
-        List<Hospital> out = new ArrayList<>();
-        String[] cities = {"Batangas City", "Lipa City", "Tanauan City", "Bauan", "Sto. Tomas", "Balayan", "Nasugbu", "Lemery"};
-        for (String c : cities) {
-            List<Hospital> list = hospitalsByCity.get(c);
-            if (list != null) out.addAll(list);
-        }
-        return out;
-    }
-}
-
-/* ---------------------------
-   Main DuringDisaster Class
-   --------------------------- */
-public class DuringDisaster {
-    private static final Scanner sc = new Scanner(System.in);
-    private final EarthquakeManager eqManager;
-    private final TyphoonManager tyManager;
-    private final FloodManager flManager;
-    private final FireManager fiManager;
-    private final HospitalDirectory hospitalDirectory;
-
-    public DuringDisaster() {
-        hospitalDirectory = new HospitalDirectory();
-        eqManager = new EarthquakeManager(hospitalDirectory);
-        tyManager = new TyphoonManager(hospitalDirectory);
-        flManager = new FloodManager(hospitalDirectory);
-        fiManager = new FireManager(hospitalDirectory);
-    }
-
-    public void runMainMenu() {
-        while (true) {
-            printHeader();
-            System.out.println("Select the type of disaster you're facing:");
-            System.out.println();
-            System.out.println("[1] Earthquake");
-            System.out.println("[2] Typhoon");
-            System.out.println("[3] Flood");
-            System.out.println("[4] Fire");
-            System.out.println("[0] Return to Main Menu");
-            System.out.println("---------------------------------------------------------");
-            System.out.print("Enter choice: ");
-            String choice = sc.nextLine().trim();
-            try {
-                switch (choice) {
-                    case "1" -> disasterMenu(eqManager, "EARTHQUAKE RESPONSE MANAGEMENT");
-                    case "2" -> disasterMenu(tyManager, "TYPHOON RESPONSE MANAGEMENT");
-                    case "3" -> disasterMenu(flManager, "FLOOD RESPONSE MANAGEMENT");
-                    case "4" -> disasterMenu(fiManager, "FIRE RESPONSE MANAGEMENT");
-                    case "0" -> {
-                        System.out.println("\nReturning to Main Menu...");
-                        return;
-                    }
-                    default -> System.out.println("\n Invalid choice. Try again.");
-                }
-            } catch (Exception e) {
-                System.out.println("Error: " + e.getMessage());
-            }
-            System.out.println();
-        }
-    }
-
-    private void printHeader() {
-        System.out.println("==========================================================");
-        System.out.println("                   DURING A DISASTER  ");
-        System.out.println("        Real-time Response and Emergency Management");
-        System.out.println("==========================================================");
-        System.out.println();
-    }
-
-    private void disasterMenu(DisasterManager manager, String header) {
-        boolean continueMenu = true;
-        while (continueMenu) {
-            System.out.println("-----------------------------------------------------------------------------------");
-            System.out.println("             " + header);
-            System.out.println("-----------------------------------------------------------------------------------");
-            System.out.println("[1] Insert New " + header.split(" ")[0] + " Report");
-            System.out.println("[2] Search a Report");
-            System.out.println("[3] Display All Reports");
-            System.out.println("[4] Delete a Report");
-            System.out.println("[5] Get Safety Suggestions");
-            System.out.println("[0] Back to Main Menu");
-            System.out.println("------------------------------------------------------------------------------------");
-            System.out.print("Enter choice: ");
-            String c = sc.nextLine().trim();
-            try {
-                switch (c) {
-                    case "1" -> insertFlow(manager);
-                    case "2" -> searchFlow(manager);
-                    case "3" -> displayAllFlow(manager);
-                    case "4" -> deleteFlow(manager);
-                    case "5" -> suggestionsFlow(manager);
-                    case "0" -> continueMenu = false;
-                    default -> System.out.println("Invalid choice. Please choose from the menu.");
-                }
-            } catch (ReportNotFoundException | InvalidChoiceException rnfe) {
-                System.out.println(" " + rnfe.getMessage());
-            }
-
-            if (!continueMenu) break;
-            System.out.print("Would you like to perform another action in this disaster menu? (Y/N): ");
-            String again = sc.nextLine().trim();
-            if (!again.equalsIgnoreCase("Y")) break;
-        }
-    }
-
-    private void insertFlow(DisasterManager manager) {
-        System.out.println();
-        System.out.println("(1) Insert New Report");
-        System.out.print("Enter Reporter Name: ");
-        String name = sc.nextLine().trim();
-        System.out.print("Enter Location (City/Municipality): ");
-        String loc = sc.nextLine().trim();
-        System.out.print("Enter Description of Incident: ");
-        String desc = sc.nextLine().trim();
-        System.out.print("Enter Type of Injury: ");
-        String injury = sc.nextLine().trim();
-        Report r = manager.insertReport(name, loc, desc, injury);
-        System.out.println();
-        System.out.println(" Report successfully recorded!");
-        System.out.println("--------------------------------------------------");
-        System.out.println(r);
-        System.out.println("--------------------------------------------------");
-        System.out.println();
-    }
-
-    private void searchFlow(DisasterManager manager) throws ReportNotFoundException {
-        System.out.println();
-        System.out.println("(2) Search a Report");
-        System.out.print("Enter report ID or reporter name to search: ");
-        String k = sc.nextLine().trim();
-        Report r = manager.searchByIdOrName(k);
-        System.out.println();
-        System.out.println("Found Report:");
-        System.out.println("--------------------------------------------------------------------------------");
-        System.out.println(r);
-        System.out.println("--------------------------------------------------------------------------------");
-        System.out.println("\nNearby Hospitals in " + r.getLocation() + ":");
-        List<Hospital> nearby = manager.suggestHospitalsNearby(r.getLocation());
-        int idx = 1;
-        for (Hospital h : nearby) {
-            System.out.printf("%d. %s\n", idx++, h.toString());
-            if (idx > 15) break;
-        }
-        System.out.println();
-    }
-
-    private void displayAllFlow(DisasterManager manager) {
-        System.out.println();
-        System.out.println("(3) Display All Reports");
-        List<Report> all = manager.getAllReports();
-        System.out.println("----------------------------------------------------------------------------------------");
-        System.out.println("                          All Recorded Reports");
-        System.out.println("----------------------------------------------------------------------------------------");
-        if (all.isEmpty()) {
-            System.out.println("No reports recorded.");
-        } else {
-            int i = 1;
-            for (Report r : all) {
-                System.out.printf("#%d | %s | %s | %s | %s\n", i++, r.getReporter(), r.getLocation(), r.getInjuryType(), truncateText(r.getDescription(), 40));
-            }
-            System.out.println("----------------------------------------------------------------------------------------");
-            System.out.println("Total Reports: " + all.size());
-        }
-        System.out.println();
-    }
-
-    private void deleteFlow(DisasterManager manager) throws ReportNotFoundException {
-        System.out.println();
-        System.out.println("(4) Delete a Report");
-        System.out.print("Enter Report ID to delete (e.g., EQ001): ");
-        String id = sc.nextLine().trim();
-        manager.deleteReport(id);
-        System.out.println();
-        System.out.println(" Report successfully deleted!");
-    }
-
-    private void suggestionsFlow(DisasterManager manager) throws InvalidChoiceException {
-        System.out.println();
-        System.out.println("(5) Get Safety Suggestions");
-        System.out.println("Select current situation:");
-        System.out.println("[1] Injured");
-        System.out.println("[2] Head and Chest Trauma");
-        System.out.println("[3] Hypothermia / Drowning / Other (contextual)");
-        System.out.println("[4] Electric Shock / Other urgent");
-        System.out.println("[0] Cancel");
-        System.out.print("Enter choice: ");
-        String choiceStr = sc.nextLine().trim();
-        if ("0".equals(choiceStr)) {
-            System.out.println("Cancelled.");
-            return;
-        }
-        int choice;
-        try {
-            choice = Integer.parseInt(choiceStr);
-        } catch (NumberFormatException nfe) {
-            throw new InvalidChoiceException("Choice must be a number.");
-        }
-        List<String> suggestions = manager.getSafetySuggestions(choice);
-        System.out.println("\nSuggested Actions:");
-        System.out.println("--------------------------------------------------------------------------------");
-        for (String s : suggestions) {
-            System.out.println(" - " + s);
-        }
-        System.out.println("--------------------------------------------------------------------------------");
-
-        System.out.print("\nEnter current city/location so we can suggest nearby hospitals (or press Enter to show major hospitals): ");
-        String city = sc.nextLine().trim();
-        List<Hospital> nearby = manager.suggestHospitalsNearby(city);
-        System.out.println("\nNearby Hospitals in Batangas:");
-        System.out.println("--------------------------------------------------------------------------------");
-        int i = 1;
-        for (Hospital h : nearby) {
-            System.out.printf("%2d. %s\n", i++, h.toString());
-            if (i > 15) break;
-        }
-        System.out.println("--------------------------------------------------------------------------------\n");
-    }
-
-    private String truncateText(String s, int max) {
-        if (s == null) return "";
-        if (s.length() <= max) return s;
-        return s.substring(0, max - 3) + "...";
-    }
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* ---------------------------
+   Custom Exceptions
+   --------------------------- */
+class ReportNotFoundException extends Exception {
+    public ReportNotFoundException(String message) { super(message); }
+}
+
+class InvalidChoiceException extends Exception {
+    public InvalidChoiceException(String message) { super(message); }
+}
+
+/* ---------------------------
+   Simple Hospital model (Encapsulation)
+   --------------------------- */
+class Hospital {
+    private final String name;
+    private final String city;
+    private final String extra;
+    private final GeoPoint location;
+
+    public Hospital(String name, String city) {
+        this(name, city, "");
+    }
+
+    public Hospital(String name, String city, String extra) {
+        this(name, city, extra, Gazetteer.locate(city));
+    }
+
+    public Hospital(String name, String city, String extra, GeoPoint location) {
+        this.name = name;
+        this.city = city;
+        this.extra = extra;
+        this.location = location;
+    }
+
+    public String getName() { return name; }
+    public String getCity() { return city; }
+    public String getExtra() { return extra; }
+    /* Where the hospital is, or null if unknown. */
+    public GeoPoint getLocation() { return location; }
+
+    @Override
+    public String toString() {
+        if (extra == null || extra.isEmpty()) return name + " " + city;
+        return name + " " + city + " " + extra;
+    }
+}
+
+/* ---------------------------
+   Report model (Encapsulation)
+   --------------------------- */
+class Report {
+    static final Comparator<Report> BY_SEQUENCE = Comparator.comparingLong(Report::getSequence);
+
+    private final long key;
+    private final String id;
+    // Arrival order at this station, for listing; unrelated to the sequence inside the ID.
+    private final long sequence;
+    private final String reporter;
+    private final String reporterKey;
+    private final String location;
+    private final String description;
+    private final String injuryType;
+    private final Severity severity;
+    private final GeoPoint point;
+    private final String locationKey;
+    // Written only under the report's lock, together with the manager's status index.
+    private volatile ReportStatus status = ReportStatus.ACTIVE;
+    private volatile long deletedAt;
+    // The ticket of this report's latest entry in the triage queue.
+    private volatile long triageTicket;
+    private volatile SituationStats.Cell statsCell;
+
+    public Report(long key, long sequence, String reporter, String location, String description, String injuryType) {
+        this.key = key;
+        this.id = ReportId.toString(key);
+        this.sequence = sequence;
+        this.reporter = reporter;
+        this.reporterKey = DisasterManager.normalizeName(reporter);
+        this.location = location;
+        this.description = description;
+        this.injuryType = injuryType;
+        this.severity = Severity.classify(injuryType);
+        this.point = Gazetteer.locate(location);
+        this.locationKey = Gazetteer.placeKey(location);
+    }
+
+    public String getId() { return id; }
+    /* The ID as a number; see ReportId. */
+    public long getKey() { return key; }
+    public long getSequence() { return sequence; }
+    public String getReporter() { return reporter; }
+    String getReporterKey() { return reporterKey; }
+    public String getLocation() { return location; }
+    public String getDescription() { return description; }
+    public String getInjuryType() { return injuryType; }
+    public Severity getSeverity() { return severity; }
+    /* The location on the map: typed coordinates or a known place name, or null if it could not be placed. */
+    public GeoPoint getPoint() { return point; }
+    /* The place the location names, normalized, so "Lipa", "lipa city" and "Brgy. Sabang, Lipa" group together. */
+    String getLocationKey() { return locationKey; }
+    public ReportStatus getStatus() { return status; }
+    /* When the report was deleted (System.currentTimeMillis()), or 0 if it is not. */
+    public long getDeletedAt() { return deletedAt; }
+    long getTriageTicket() { return triageTicket; }
+    void setTriageTicket(long ticket) { this.triageTicket = ticket; }
+    SituationStats.Cell getStatsCell() { return statsCell; }
+    void setStatsCell(SituationStats.Cell cell) { this.statsCell = cell; }
+
+    /* Moves to next if the lifecycle allows it. Returns false, changing nothing, if it does not.
+       Callers that keep indexes by status hold the report's lock around this and the index update. */
+    synchronized boolean moveTo(ReportStatus next, long now) {
+        if (!status.canMoveTo(next)) return false;
+        if (next == ReportStatus.DELETED) deletedAt = now;
+        status = next;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(96 + reporter.length() + location.length() + description.length())
+                .append("Report ID : ").append(id)
+                .append("\nReporter  : ").append(reporter)
+                .append("\nLocation  : ").append(location)
+                .append("\nDescription: ").append(description)
+                .append("\nInjury    : ").append(injuryType)
+                .append("\nSeverity  : ").append(severity.getLabel())
+                .append("\nStatus    : ").append(status.getLabel())
+                .toString();
+    }
+}
+
+/* ---------------------------
+   Report lifecycle
+   A report is Active when filed, Dispatched once a team is on its way,
+   and Resolved when handled; it can go back to Active if the need
+   returns. Deleting leaves a tombstone: the report keeps its ID and
+   can still be looked up by it, but no longer shows in listings or
+   name searches. Tombstones are purged after a retention period (see
+   ReportDesk). Deleted is final.
+   --------------------------- */
+enum ReportStatus {
+    ACTIVE("Active"),
+    DISPATCHED("Dispatched"),
+    RESOLVED("Resolved"),
+    DELETED("Deleted");
+
+    private final String label;
+
+    ReportStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    public boolean canMoveTo(ReportStatus next) {
+        return switch (this) {
+            case ACTIVE -> next == DISPATCHED || next == RESOLVED || next == DELETED;
+            case DISPATCHED -> next == ACTIVE || next == RESOLVED || next == DELETED;
+            case RESOLVED -> next == ACTIVE || next == DELETED;
+            case DELETED -> false;
+        };
+    }
+
+    /* Accepts the label ("Dispatched") in any case. Returns null if unknown. */
+    public static ReportStatus parse(String text) {
+        if (text == null) return null;
+        String t = text.trim();
+        for (ReportStatus s : values()) {
+            if (s.label.equalsIgnoreCase(t)) return s;
+        }
+        return null;
+    }
+}
+
+/* ---------------------------
+   Report listing
+   A filter on status and location, and one page of a listing. Without a
+   status the filter takes every report that is not deleted; a location
+   matches every report naming the same place. A page carries the cursor to pass back for the next page, so
+   a listing can be walked one screen at a time without ever copying the
+   whole store.
+   --------------------------- */
+final class ReportFilter {
+    static final ReportFilter ALL = new ReportFilter(null, "");
+
+    private final ReportStatus status;
+    private final String locationKey;
+
+    /* A null status or blank location means any. */
+    public ReportFilter(ReportStatus status, String location) {
+        this.status = status;
+        this.locationKey = location == null || location.isBlank() ? "" : Gazetteer.placeKey(location);
+    }
+
+    /* A filter from what an operator typed; blank means any. */
+    public static ReportFilter parse(String status, String location) throws InvalidChoiceException {
+        if (status == null || status.isBlank()) return new ReportFilter(null, location);
+        ReportStatus s = ReportStatus.parse(status);
+        if (s == null) throw new InvalidChoiceException("Unknown status: " + status.trim() + ". Use Active, Dispatched, Resolved or Deleted.");
+        return new ReportFilter(s, location);
+    }
+
+    public boolean isAll() {
+        return status == null && locationKey.isEmpty();
+    }
+
+    /* The status asked for, or null for any report that is not deleted. */
+    public ReportStatus getStatus() { return status; }
+    /* The place key asked for (see Report.getLocationKey()), or "" for anywhere. */
+    public String getLocationKey() { return locationKey; }
+
+    public boolean matches(Report r) {
+        return (status == null ? r.getStatus() != ReportStatus.DELETED : r.getStatus() == status)
+                && (locationKey.isEmpty() || locationKey.equals(r.getLocationKey()));
+    }
+}
+
+final class ReportPage {
+    private final List<Report> reports;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    ReportPage(List<Report> reports, long nextCursor, boolean hasMore) {
+        this.reports = reports;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Report> getReports() { return reports; }
+    public long getNextCursor() { return nextCursor; }
+    /* True if reports were recorded past this page; they may still all fail the filter. */
+    public boolean hasMore() { return hasMore; }
+}
+
+/* ---------------------------
+   Disaster types
+   --------------------------- */
+enum DisasterType {
+    EARTHQUAKE("EQ", "Earthquake"),
+    TYPHOON("TYP", "Typhoon"),
+    FLOOD("FLD", "Flood"),
+    FIRE("FIR", "Fire");
+
+    private final String codePrefix;
+    private final String displayName;
+
+    DisasterType(String codePrefix, String displayName) {
+        this.codePrefix = codePrefix;
+        this.displayName = displayName;
+    }
+
+    public String getCodePrefix() { return codePrefix; }
+    public String getDisplayName() { return displayName; }
+
+    /* Accepts the type name ("flood") or its report code prefix ("FLD"), in any case. Returns null if unknown. */
+    public static DisasterType parse(String text) {
+        if (text == null) return null;
+        String t = text.trim();
+        for (DisasterType type : values()) {
+            if (type.name().equalsIgnoreCase(t) || type.codePrefix.equalsIgnoreCase(t)) return type;
+        }
+        return null;
+    }
+}
+
+/* ---------------------------
+   Abstract DisasterManager (Abstraction)
+   Safe for several operators at once: every index is a lock-free
+   concurrent collection, or for the ID map a striped one whose reads
+   take no lock, so inserts from different threads rarely block each
+   other and searches never block at all.
+
+   Besides the ID and name indexes, every report's arrival number is
+   set in one bitmap per status and one per place, so a listing like
+   "Active reports in Lipa City" only visits the reports it returns.
+   A status change updates the bitmaps under the report's lock.
+   --------------------------- */
+abstract class DisasterManager {
+    private static final int NEARBY_HOSPITALS = 10;
+
+    // Keyed by the numeric report ID.
+    protected final ConcurrentLongMap<Report> reports = new ConcurrentLongMap<>();
+    // The same reports in insertion order, for display.
+    protected final ConcurrentSkipListMap<Long, Report> reportsInOrder = new ConcurrentSkipListMap<>();
+    protected final Map<String, NavigableSet<Report>> reportsByReporter = new ConcurrentHashMap<>();
+    // The keys of reportsByReporter in order, for names too short for the trigram index.
+    protected final NavigableSet<String> reporterNames = new ConcurrentSkipListSet<>();
+    protected final NGramIndex<Report> reporterGrams = new NGramIndex<>(Report::getReporterKey, Report.BY_SEQUENCE);
+    // Arrival numbers by status and by place key. The status map is filled once and only read.
+    protected final Map<ReportStatus, ChunkedBitmap> byStatus = new EnumMap<>(ReportStatus.class);
+    protected final Map<String, ChunkedBitmap> byLocation = new ConcurrentHashMap<>();
+    protected final AtomicInteger tombstones = new AtomicInteger();
+    // The last ID sequence number this station issued, and the last arrival number of any report.
+    protected final AtomicLong counter = new AtomicLong(0);
+    protected final AtomicLong arrivals = new AtomicLong(0);
+    protected final int node = ReportId.localNode();
+    protected final DisasterType type;
+    protected final String codePrefix;
+    protected final HospitalDirectory hospitalDirectory;
+    protected Journal journal = Journal.DISABLED;
+    protected TriageQueue triage;
+    protected EventRing events;
+    protected SituationStats stats;
+
+    public DisasterManager(DisasterType type, HospitalDirectory hd) {
+        this.type = type;
+        this.codePrefix = type.getCodePrefix();
+        this.hospitalDirectory = hd;
+        for (ReportStatus s : ReportStatus.values()) byStatus.put(s, new ChunkedBitmap());
+    }
+
+    public DisasterType getType() { return type; }
+
+    /* Changes made after this call are written to the journal before they return. */
+    public void attachJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /* Reports that become Active after this call are offered to the queue. */
+    public void attachTriage(TriageQueue triage) {
+        this.triage = triage;
+    }
+
+    /* Reports indexed after this call, and their later changes, are counted in stats. */
+    public void attachStats(SituationStats stats) {
+        this.stats = stats;
+    }
+
+    /* Changes made after this call are published to the ring. */
+    public void attachEvents(EventRing events) {
+        this.events = events;
+    }
+
+    protected long createId() {
+        return ReportId.of(type, node, counter.incrementAndGet());
+    }
+
+    public Report insertReport(String reporter, String location, String desc, String injury) {
+        long start = Metrics.now();
+        Report r = new Report(createId(), arrivals.incrementAndGet(), reporter, location, desc, injury);
+        // Journal first: nobody can find (and delete) the report before its insert is on disk.
+        journal.reportInserted(r);
+        index(r);
+        if (triage != null) triage.offer(r);
+        if (events != null) events.publishReport(ChangeKind.REPORT_INSERTED, r, null);
+        Metrics.INSERT_REPORT.record(start);
+        return r;
+    }
+
+    /* Bulk insert. Each row is {reporter, location, description, injury}; the whole batch shares one journal flush. */
+    public List<Report> insertReports(List<String[]> rows) {
+        List<Report> batch = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            batch.add(new Report(createId(), arrivals.incrementAndGet(), row[0], row[1], row[2], row[3]));
+        }
+        journal.reportsInserted(batch);
+        for (Report r : batch) index(r);
+        if (triage != null) {
+            for (Report r : batch) triage.offer(r);
+        }
+        if (events != null) {
+            for (Report r : batch) events.publishReport(ChangeKind.REPORT_INSERTED, r, null);
+        }
+        return batch;
+    }
+
+    public Report searchByIdOrName(String key) throws ReportNotFoundException {
+        long start = Metrics.now();
+        try {
+            return lookup(key);
+        } finally {
+            Metrics.SEARCH_REPORT.record(start);
+        }
+    }
+
+    private Report lookup(String key) throws ReportNotFoundException {
+        if (key == null || key.trim().isEmpty()) throw new ReportNotFoundException("Empty search key.");
+        String k = key.trim();
+        Report byId = reports.get(ReportId.parse(k));
+        if (byId != null) return byId;
+        String name = normalizeName(k);
+        Report sameName = first(reportsByReporter.get(name));
+        if (sameName != null) return sameName;
+        Report partial = NGramIndex.canSearch(name) ? reporterGrams.first(name) : firstByNameStart(name);
+        if (partial != null) return partial;
+        Metrics.REPORTS_NOT_FOUND.increment();
+        throw new ReportNotFoundException("No report found matching: " + key);
+    }
+
+    /* Every report the query names, up to limit: the report with that ID (even if deleted), then live reports
+       by reporters with exactly that name, then by reporters whose name contains it. Each step is an index
+       lookup, so the cost follows the number of matches; a query shorter than three letters is too short for
+       the trigram index and matches names that start with it instead. */
+    public List<Report> findAll(String query, int limit) {
+        if (query == null || query.isBlank()) return Collections.emptyList();
+        Set<Report> found = new LinkedHashSet<>();
+        Report byId = reports.get(ReportId.parse(query));
+        if (byId != null) found.add(byId);
+        String name = normalizeName(query);
+        NavigableSet<Report> sameName = reportsByReporter.get(name);
+        if (sameName != null) {
+            for (Report r : sameName) {
+                if (found.size() >= limit) break;
+                found.add(r);
+            }
+        }
+        if (NGramIndex.canSearch(name)) {
+            if (found.size() < limit) found.addAll(reporterGrams.find(name, limit));
+        } else {
+            for (String n : reporterNames.tailSet(name, false)) {
+                if (found.size() >= limit || !n.startsWith(name)) break;
+                NavigableSet<Report> set = reportsByReporter.get(n);
+                if (set == null) continue;
+                for (Report r : set) {
+                    if (found.size() >= limit) break;
+                    found.add(r);
+                }
+            }
+        }
+        List<Report> out = new ArrayList<>(found);
+        return out.size() > limit ? out.subList(0, limit) : out;
+    }
+
+    // One or two letter queries are too short for the trigram index: the first report under the first name
+    // that starts with them, found in the ordered names rather than by scanning every report.
+    private Report firstByNameStart(String prefix) {
+        for (String n : reporterNames.tailSet(prefix, true)) {
+            if (!n.startsWith(prefix)) return null;
+            Report r = first(reportsByReporter.get(n));
+            if (r != null) return r;
+        }
+        return null;
+    }
+
+    private static Report first(NavigableSet<Report> set) {
+        if (set == null) return null;
+        try {
+            return set.first();
+        } catch (NoSuchElementException e) {
+            return null; // emptied by a concurrent delete
+        }
+    }
+
+    // The ID map comes last: a report cannot be deleted or changed before it is fully indexed.
+    private void index(Report r) {
+        reportsInOrder.put(r.getSequence(), r);
+        // compute() runs atomically per name, so an add cannot race with the removal of an emptied set.
+        reportsByReporter.compute(r.getReporterKey(), (k, set) -> {
+            if (set == null) {
+                set = new ConcurrentSkipListSet<>(Report.BY_SEQUENCE);
+                reporterNames.add(k);
+            }
+            set.add(r);
+            return set;
+        });
+        reporterGrams.add(r);
+        byLocation.computeIfAbsent(r.getLocationKey(), k -> new ChunkedBitmap()).set(r.getSequence());
+        synchronized (r) {
+            byStatus.get(r.getStatus()).set(r.getSequence());
+            if (stats != null) stats.added(r);
+        }
+        reports.put(r.getKey(), r);
+    }
+
+    /* Moves the report to next and its arrival number to next's bitmap, atomically for that report. */
+    private boolean transition(Report r, ReportStatus next) {
+        synchronized (r) {
+            ReportStatus previous = r.getStatus();
+            if (!r.moveTo(next, System.currentTimeMillis())) return false;
+            if (previous == ReportStatus.ACTIVE && triage != null) triage.remove(r);
+            byStatus.get(next).set(r.getSequence());
+            byStatus.get(previous).clear(r.getSequence());
+            if (stats != null) stats.moved(r, previous, next);
+            if (events != null) {
+                events.publishReport(next == ReportStatus.DELETED ? ChangeKind.REPORT_DELETED : ChangeKind.REPORT_STATUS, r, previous);
+            }
+            return true;
+        }
+    }
+
+    // A deleted report stays reachable by ID only.
+    private void unindexName(Report r) {
+        reportsByReporter.computeIfPresent(r.getReporterKey(), (k, set) -> {
+            set.remove(r);
+            if (!set.isEmpty()) return set;
+            reporterNames.remove(k);
+            return null;
+        });
+        reporterGrams.remove(r);
+        tombstones.incrementAndGet();
+    }
+
+    static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /* The reports that are not deleted, in insertion order. */
+    public List<Report> getAllReports() {
+        List<Report> all = new ArrayList<>();
+        for (Report r : reportsInOrder.values()) {
+            if (r.getStatus() != ReportStatus.DELETED) all.add(r);
+        }
+        return all;
+    }
+
+    /* The number of reports that are not deleted. */
+    public int getReportCount() {
+        return reports.size() - tombstones.get();
+    }
+
+    /* Up to pageSize reports matching the filter, in insertion order, after the cursor (0 for the first page).
+       A filtered listing walks the status and place bitmaps, so it costs work in proportion to the matches. */
+    public ReportPage listReports(ReportFilter filter, long cursor, int pageSize) {
+        List<Report> page = new ArrayList<>(Math.min(pageSize, 64));
+        ChunkedBitmap status = filter.getStatus() == null ? null : byStatus.get(filter.getStatus());
+        ChunkedBitmap place = null;
+        if (!filter.getLocationKey().isEmpty()) {
+            place = byLocation.get(filter.getLocationKey());
+            if (place == null) return new ReportPage(page, cursor, false);
+        }
+        if (status == null && place == null) return listLive(cursor, pageSize, page);
+        long last = cursor;
+        long next = nextMatch(status, place, cursor + 1);
+        while (next >= 0 && page.size() < pageSize) {
+            last = next;
+            Report r = reportsInOrder.get(next);
+            // The bitmaps and the report can disagree for a moment while a status changes.
+            if (r != null && filter.matches(r)) page.add(r);
+            next = nextMatch(status, place, next + 1);
+        }
+        return new ReportPage(page, last, next >= 0);
+    }
+
+    // With no status, any live status matches: walk the place's bitmap and skip tombstones.
+    private long nextMatch(ChunkedBitmap status, ChunkedBitmap place, long from) {
+        if (status == null) return place.nextSetBit(from);
+        return place == null ? status.nextSetBit(from) : ChunkedBitmap.nextSetBitAnd(status, place, from);
+    }
+
+    private ReportPage listLive(long cursor, int pageSize, List<Report> page) {
+        long last = cursor;
+        for (Report r : reportsInOrder.tailMap(cursor, false).values()) {
+            last = r.getSequence();
+            if (r.getStatus() != ReportStatus.DELETED) {
+                page.add(r);
+                if (page.size() >= pageSize) break;
+            }
+        }
+        return new ReportPage(page, last, reportsInOrder.higherKey(last) != null);
+    }
+
+    /* Deletes the report, leaving a tombstone that can still be found by ID until compact() purges it. */
+    public boolean deleteReport(String id) throws ReportNotFoundException {
+        Report r = find(id);
+        synchronized (r) {
+            // Journalled under the lock, so the journal sees each report's changes in the order they happened.
+            if (!transition(r, ReportStatus.DELETED)) throw new ReportNotFoundException("Report already deleted: " + id);
+            journal.reportDeleted(r.getId());
+        }
+        unindexName(r);
+        return true;
+    }
+
+    public Report updateStatus(String id, ReportStatus next) throws ReportNotFoundException, InvalidChoiceException {
+        if (next == ReportStatus.DELETED) {
+            deleteReport(id);
+            return find(id);
+        }
+        Report r = find(id);
+        synchronized (r) {
+            ReportStatus current = r.getStatus();
+            if (current == next) return r;
+            if (!transition(r, next)) {
+                throw new InvalidChoiceException("A " + current.getLabel() + " report cannot become " + next.getLabel() + ".");
+            }
+            journal.reportStatusChanged(r.getId(), next.getLabel());
+            if (next == ReportStatus.ACTIVE && triage != null) triage.offer(r);
+        }
+        return r;
+    }
+
+    /* Marks a report taken from the triage queue Dispatched. False if it is no longer Active. */
+    boolean dispatch(Report r) {
+        synchronized (r) {
+            if (r.getStatus() != ReportStatus.ACTIVE || !transition(r, ReportStatus.DISPATCHED)) return false;
+            journal.reportStatusChanged(r.getId(), ReportStatus.DISPATCHED.getLabel());
+            return true;
+        }
+    }
+
+    private Report find(String id) throws ReportNotFoundException {
+        if (id == null || id.trim().isEmpty()) throw new ReportNotFoundException("Empty report ID.");
+        Report r = reports.get(ReportId.parse(id));
+        if (r == null) throw new ReportNotFoundException("Report ID not found: " + id);
+        return r;
+    }
+
+    /* Purges the tombstones of reports deleted before the cutoff (System.currentTimeMillis() time)
+       from every index; their IDs are then no longer found. Returns how many were purged. */
+    public int compact(long deletedBefore) {
+        ChunkedBitmap deleted = byStatus.get(ReportStatus.DELETED);
+        int purged = 0;
+        for (long seq = deleted.nextSetBit(0); seq >= 0; seq = deleted.nextSetBit(seq + 1)) {
+            Report r = reportsInOrder.get(seq);
+            if (r == null || r.getDeletedAt() >= deletedBefore) continue;
+            reports.remove(r.getKey());
+            reportsInOrder.remove(seq);
+            deleted.clear(seq);
+            if (stats != null) stats.purged(r);
+            ChunkedBitmap place = byLocation.get(r.getLocationKey());
+            if (place != null) place.clear(seq);
+            tombstones.decrementAndGet();
+            purged++;
+        }
+        return purged;
+    }
+
+    /* ---- Journal replay: rebuild state without writing it back to the journal ---- */
+
+    void restoreReport(long id, String reporter, String location, String desc, String injury) {
+        index(new Report(id, arrivals.incrementAndGet(), reporter, location, desc, injury));
+        // Only this station's own IDs move its counter; merged reports keep their station's numbers.
+        if (ReportId.node(id) == node) counter.accumulateAndGet(ReportId.sequence(id), Math::max);
+    }
+
+    /* The tombstone's retention starts at replay, as the journal does not record when a delete happened. */
+    void restoreDelete(long id) {
+        Report r = reports.get(id);
+        if (r != null && transition(r, ReportStatus.DELETED)) unindexName(r);
+    }
+
+    void restoreStatus(long id, String status) {
+        Report r = reports.get(id);
+        ReportStatus next = ReportStatus.parse(status);
+        if (r == null || next == null) return;
+        if (next == ReportStatus.DELETED) restoreDelete(id);
+        else transition(r, next);
+    }
+
+    /* Each kind of disaster picks its own advice; the returned list is shared and immutable. */
+    public abstract List<String> getSafetySuggestions(int situationChoice) throws InvalidChoiceException;
+
+    /* The guide catalog's advice for a situation under the given disaster's entries. */
+    protected List<String> catalogAdvice(DisasterType entries, int situationChoice) throws InvalidChoiceException {
+        List<String> advice = GuideCatalog.get().lines(GuideCatalog.Section.SUGGESTIONS, entries, situationChoice);
+        if (advice == null || situationChoice == 0) {
+            throw new InvalidChoiceException("Invalid situation for " + type.getDisplayName() + " suggestions.");
+        }
+        return advice;
+    }
+
+    public List<Hospital> suggestHospitalsNearby(String location) {
+        return hospitalDirectory.findNearestHospitals(location, NEARBY_HOSPITALS);
+    }
+
+    /* Places the operator may have meant by a location that is not an exact place name. */
+    public List<String> suggestPlaces(String location, int limit) {
+        return hospitalDirectory.suggestPlaces(location, limit);
+    }
+
+    public List<Hospital> suggestHospitalsNearby(Report r) {
+        if (r.getPoint() == null) return suggestHospitalsNearby(r.getLocation());
+        return hospitalDirectory.findNearestHospitals(r.getPoint(), NEARBY_HOSPITALS);
+    }
+}
+
+/* ---------------------------
+   Concrete Managers
+   --------------------------- */
+class EarthquakeManager extends DisasterManager {
+    public EarthquakeManager(HospitalDirectory hd) { super(DisasterType.EARTHQUAKE, hd); }
+
+    @Override
+    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
+        return catalogAdvice(DisasterType.EARTHQUAKE, choice);
+    }
+}
+
+class TyphoonManager extends DisasterManager {
+    public TyphoonManager(HospitalDirectory hd) { super(DisasterType.TYPHOON, hd); }
+
+    @Override
+    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
+        return catalogAdvice(DisasterType.TYPHOON, choice);
+    }
+}
+
+class FloodManager extends DisasterManager {
+    public FloodManager(HospitalDirectory hd) { super(DisasterType.FLOOD, hd); }
+
+    @Override
+    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
+        return catalogAdvice(DisasterType.FLOOD, choice);
+    }
+}
+
+class FireManager extends DisasterManager {
+    public FireManager(HospitalDirectory hd) { super(DisasterType.FIRE, hd); }
+
+    @Override
+    public List<String> getSafetySuggestions(int choice) throws InvalidChoiceException {
+        return catalogAdvice(DisasterType.FIRE, choice);
+    }
+}
+
+/* ---------------------------
+   Hospital Directory
+   Hospitals by city, and a nearest-neighbour index over their
+   locations for finding the closest ones to a report.
+   --------------------------- */
+class HospitalDirectory {
+    private static final String[] TOP_CITIES = {"Batangas City", "Lipa City", "Tanauan City", "Bauan", "Sto. Tomas", "Balayan", "Nasugbu", "Lemery"};
+
+    private final Map<String, List<Hospital>> hospitalsByCity = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final NearestIndex<Hospital> nearest;
+    private final PlaceTrie<Place> places = new PlaceTrie<>();
+    private final List<Hospital> topHospitals;
+
+    /* A city or municipality an operator may name: where it is, and the hospitals in it. */
+    static final class Place {
+        final String name;
+        final GeoPoint location;
+        final List<Hospital> hospitals;
+
+        Place(String name, GeoPoint location, List<Hospital> hospitals) {
+            this.name = name;
+            this.location = location;
+            this.hospitals = hospitals;
+        }
+    }
+
+    public HospitalDirectory() {
+        populateHospitals();
+        // Freeze the per-city lists: they are handed out as they are.
+        hospitalsByCity.replaceAll((city, list) -> List.copyOf(list));
+        List<Hospital> all = new ArrayList<>();
+        for (List<Hospital> inCity : hospitalsByCity.values()) all.addAll(inCity);
+        nearest = new NearestIndex<>(all, Hospital::getLocation);
+        List<Hospital> top = new ArrayList<>();
+        for (String c : TOP_CITIES) top.addAll(hospitalsByCity.getOrDefault(c, List.of()));
+        topHospitals = List.copyOf(top);
+
+        Map<GeoPoint, List<String>> towns = Gazetteer.places();
+        Set<GeoPoint> placed = new HashSet<>();
+        for (Map.Entry<String, List<Hospital>> e : hospitalsByCity.entrySet()) {
+            GeoPoint at = Gazetteer.locate(e.getKey());
+            List<String> names = new ArrayList<>();
+            names.add(e.getKey());
+            if (at != null && placed.add(at)) names.addAll(towns.get(at));
+            places.add(new Place(e.getKey(), at, e.getValue()), e.getValue().size(), names.toArray(new String[0]));
+        }
+        // Towns without a hospital can still be named; their nearest hospitals are suggested.
+        for (Map.Entry<GeoPoint, List<String>> e : towns.entrySet()) {
+            if (placed.add(e.getKey())) {
+                List<String> names = e.getValue();
+                places.add(new Place(names.get(0), e.getKey(), List.of()), 0, names.toArray(new String[0]));
+            }
+        }
+    }
+
+    private void addHospital(String city, String name) {
+        addHospital(city, name, "");
+    }
+
+    private void addHospital(String city, String name, String extra) {
+        hospitalsByCity.computeIfAbsent(city.trim(), k -> new ArrayList<>()).add(new Hospital(name, city, extra));
+    }
+
+    private void populateHospitals() {
+        addHospital("Batangas City", "Batangas Medical Center");
+        addHospital("Batangas City", "Golden Gate Batangas Hospital, Inc.");
+        addHospital("Batangas City", "St. Patrick's Hospital Medical Center");
+        addHospital("Batangas City", "Batangas Health Care Hospital (Jesus of Nazareth)");
+        addHospital("Batangas City", "Batangas Healthcare Specialists Medical Center");
+        addHospital("Batangas City", "United Doctors of St. Camillus de Lellis Hospital");
+        addHospital("Lipa City", "Mary Mediatrix Medical Center");
+        addHospital("Lipa City", "Metro Lipa Medical Center");
+        addHospital("Lipa City", "Ospital ng Lipa (Lipa City District Hospital)");
+        addHospital("Lipa City", "Divine Love General Hospital");
+        addHospital("Lipa City", "N.L. Villa Memorial Medical Center");
+        addHospital("Lipa City", "Lipa Medix Medical Center");
+        addHospital("Lipa City", "San Antonio Medical Center of Lipa");
+        addHospital("Lipa City", "San Antonio Life Care Corporation");
+        addHospital("Tanauan City", "Daniel O. Mercado Medical Center");
+        addHospital("Tanauan City", "C.P. Reyes Hospital (Tanauan)");
+        addHospital("Bauan", "Bauan Doctors General Hospital");
+        addHospital("Bauan", "Dr. Mario D. Bejasa General Hospital");
+        addHospital("Balayan", "Metro Balayan Medical Center");
+        addHospital("Balayan", "Don Manuel Lopez Memorial District Hospital");
+        addHospital("Balayan", "Medical Center Western Batangas");
+        addHospital("Balayan", "Balayan Bayview Hospital & Medical Center");
+        addHospital("Nasugbu", "Apacible Memorial District Hospital (Nasugbu)");
+        addHospital("Nasugbu", "Nasugbu Doctors Hospital");
+        addHospital("Nasugbu", "Central Azucarera Don Pedro Hospital");
+        addHospital("Nasugbu", "Jabez Medical Center (Nasugbu)");
+        addHospital("Lemery", "Lemery Doctors Hospital");
+        addHospital("Lemery", "Metro Lemery Medical Center");
+        addHospital("Lemery", "Our Lady of Caysasay Medical Center, Inc.");
+        addHospital("Sto. Tomas", "Sto. Tomas Doctors Hospital and Medical Center");
+        addHospital("Sto. Tomas", "St. Frances Cabrini Medical Center");
+        addHospital("San Jose", "Metro San Jose Medical Center");
+        addHospital("San Jose", "San Jose Doctors General Hospital");
+        addHospital("Talisay", "Talisay Community Hospital");
+        addHospital("Padre Garcia", "Padre Garcia District Hospital");
+        addHospital("Rosario", "Rosario Community Hospital");
+        addHospital("Calaca", "Ospital ng Calaca");
+        addHospital("Calatagan", "Calatagan Medicare Hospital");
+        addHospital("Tuy", "Tuy District Hospital");
+        addHospital("Lian", "Lian District Hospital");
+        addHospital("Mabini", "Mabini General Hospital");
+        addHospital("Mabini", "Zigzag Hospital (Mabini)");
+        addHospital("Lobo", "Lobo Municipal Hospital");
+        addHospital("San Pascual", "San Antonio Life Care Corporation");
+        addHospital("San Pascual", "San Pascual Baylon Hospital");
+        addHospital("Malvar", "Malvar General Hospital");
+        addHospital("Ibaan", "Ibaan District Hospital");
+        addHospital("San Juan", "San Juan District Hospital");
+        addHospital("Taysan", "Taysan Community Hospital");
+        addHospital("Agoncillo", "Agoncillo Medicare Hospital");
+        addHospital("Mataasnakahoy", "Mataasnakahoy Community Hospital");
+    }
+
+    /* The hospitals of the city the text names, allowing for prefixes and typing mistakes ("San", "Tanuan").
+       Unknown or hospital-less places get the major hospitals. The lists are shared and immutable. */
+    public List<Hospital> findHospitalsByCity(String city) {
+        long start = Metrics.now();
+        List<Hospital> found = hospitalsOf(city);
+        Metrics.FIND_HOSPITALS.record(start);
+        return found;
+    }
+
+    private List<Hospital> hospitalsOf(String city) {
+        if (city == null || city.trim().isEmpty()) {
+            return topHospitals;
+        }
+        List<Hospital> local = hospitalsByCity.get(city.trim());
+        if (local != null) return local;
+        int id = places.resolve(city);
+        if (id >= 0 && !places.value(id).hospitals.isEmpty()) return places.value(id).hospitals;
+        return topHospitals;
+    }
+
+    /* The k hospitals closest to a location given as coordinates ("13.94,121.16") or a place name,
+       allowing for typing mistakes. A location that cannot be placed on the map falls back to the city lookup. */
+    public List<Hospital> findNearestHospitals(String location, int k) {
+        GeoPoint p = Gazetteer.locate(location);
+        if (p == null && location != null && !location.isBlank()) {
+            int id = places.resolve(location);
+            if (id >= 0) p = places.value(id).location;
+        }
+        return p != null ? findNearestHospitals(p, k) : findHospitalsByCity(location);
+    }
+
+    public List<Hospital> findNearestHospitals(GeoPoint p, int k) {
+        return nearest.nearest(p, k);
+    }
+
+    /* The places the text may mean, best first. Empty if it names a place exactly or nothing comes close. */
+    public List<String> suggestPlaces(String text, int limit) {
+        if (text == null || text.isBlank() || places.exact(text) >= 0 || Gazetteer.locate(text) != null) return List.of();
+        List<String> names = new ArrayList<>();
+        for (int id : places.candidates(text, limit)) names.add(places.name(id));
+        return names;
+    }
+
+    public List<Hospital> getTopHospitals() {
+        return topHospitals;
+    }
+}
+
+/* ---------------------------
+   Report Desk
+   The hospital directory and the four disaster managers. One desk can
+   be shared by any number of operator sessions.
+
+   The desk also keeps the triage queue: every Active report of any
+   type, most urgent first, for handing to the next free responder;
+   and the situation statistics over all four managers.
+
+   A background thread purges deleted reports once they have been
+   tombstones for -Drsr.tombstoneHours (default 24). The purge is in
+   memory only: the journal keeps every insert and delete, and a
+   restart brings purged reports back as tombstones for another full
+   period. One thread serves every desk in the process; close() stops
+   a desk's purges, which also stop once the desk is unreachable.
+   --------------------------- */
+class ReportDesk implements AutoCloseable {
+    private static final ScheduledThreadPoolExecutor COMPACTOR = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread t = new Thread(task, "report-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        COMPACTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    final HospitalDirectory hospitalDirectory;
+    final EarthquakeManager eqManager;
+    final TyphoonManager tyManager;
+    final FloodManager flManager;
+    final FireManager fiManager;
+    private final TriageQueue triage = new TriageQueue();
+    private final SituationStats stats = new SituationStats();
+    private final long tombstoneMillis = TimeUnit.HOURS.toMillis(Long.getLong("rsr.tombstoneHours", 24));
+    private final Compaction compaction;
+
+    public ReportDesk(HospitalDirectory hospitalDirectory, Journal journal) {
+        this.hospitalDirectory = hospitalDirectory;
+        eqManager = new EarthquakeManager(hospitalDirectory);
+        tyManager = new TyphoonManager(hospitalDirectory);
+        flManager = new FloodManager(hospitalDirectory);
+        fiManager = new FireManager(hospitalDirectory);
+        for (DisasterManager m : managers()) m.attachStats(stats);
+        restoreFromJournal(journal);
+        long every = Math.max(1, Math.min(tombstoneMillis, TimeUnit.HOURS.toMillis(1)));
+        compaction = new Compaction(this);
+        compaction.future = COMPACTOR.scheduleWithFixedDelay(compaction, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    /* Stops the background purges of this desk. */
+    @Override
+    public void close() {
+        compaction.cancel();
+    }
+
+    // Holds the desk weakly, so a desk nobody closed does not stay alive for its purges.
+    private static final class Compaction implements Runnable {
+        private final WeakReference<ReportDesk> desk;
+        volatile ScheduledFuture<?> future;
+
+        Compaction(ReportDesk desk) {
+            this.desk = new WeakReference<>(desk);
+        }
+
+        @Override
+        public void run() {
+            ReportDesk d = desk.get();
+            if (d == null) cancel();
+            else d.compact();
+        }
+
+        void cancel() {
+            ScheduledFuture<?> f = future;
+            if (f != null) f.cancel(false);
+        }
+    }
+
+    /* Live counts of every manager's reports. */
+    public SituationStats stats() {
+        return stats;
+    }
+
+    /* Publishes every later change of any report to the ring. */
+    public void attachEvents(EventRing events) {
+        for (DisasterManager m : managers()) m.attachEvents(events);
+    }
+
+    /* Takes the most urgent Active report of any type and marks it Dispatched; null if none is waiting. */
+    public Report dispatchNext() {
+        for (Report r = triage.poll(); r != null; r = triage.poll()) {
+            if (manager(ReportId.type(r.getKey())).dispatch(r)) return r;
+        }
+        return null;
+    }
+
+    /* Purges tombstones older than the retention period. Returns how many were purged. */
+    public int compact() {
+        long cutoff = System.currentTimeMillis() - tombstoneMillis;
+        int purged = 0;
+        for (DisasterManager m : managers()) purged += m.compact(cutoff);
+        return purged;
+    }
+
+    public List<DisasterManager> managers() {
+        return List.of(eqManager, tyManager, flManager, fiManager);
+    }
+
+    public DisasterManager manager(DisasterType type) {
+        return switch (type) {
+            case EARTHQUAKE -> eqManager;
+            case TYPHOON -> tyManager;
+            case FLOOD -> flManager;
+            case FIRE -> fiManager;
+        };
+    }
+
+    private void restoreFromJournal(Journal journal) {
+        List<DisasterManager> managers = managers();
+        journal.replay(new Journal.Handler() {
+            @Override
+            public void reportInserted(String id, String reporter, String location, String description, String injuryType) {
+                long key = ReportId.parse(id);
+                if (key != ReportId.INVALID) manager(ReportId.type(key)).restoreReport(key, reporter, location, description, injuryType);
+            }
+
+            @Override
+            public void reportDeleted(String id) {
+                long key = ReportId.parse(id);
+                if (key != ReportId.INVALID) manager(ReportId.type(key)).restoreDelete(key);
+            }
+
+            @Override
+            public void reportStatusChanged(String id, String status) {
+                long key = ReportId.parse(id);
+                if (key != ReportId.INVALID) manager(ReportId.type(key)).restoreStatus(key, status);
+            }
+        });
+        for (DisasterManager m : managers) {
+            m.attachJournal(journal);
+            for (Report r : m.getAllReports()) {
+                if (r.getStatus() == ReportStatus.ACTIVE) triage.offer(r);
+            }
+            m.attachTriage(triage);
+        }
+    }
+}
+
+/* ---------------------------
+   Main DuringDisaster Class
+   --------------------------- */
+public class DuringDisaster {
+    private static final int PAGE_SIZE = 20;
+
+    private final LineReader input;
+    private final PrintStream out;
+    private final EarthquakeManager eqManager;
+    private final TyphoonManager tyManager;
+    private final FloodManager flManager;
+    private final FireManager fiManager;
+    private final ReportDesk desk;
+    private final AppContext context;
+
+    public DuringDisaster(Session session, AppContext context) {
+        input = session.in();
+        out = session.out();
+        this.context = context;
+        ReportDesk desk = context.desk();
+        this.desk = desk;
+        eqManager = desk.eqManager;
+        tyManager = desk.tyManager;
+        flManager = desk.flManager;
+        fiManager = desk.fiManager;
+    }
+
+    public void runMainMenu() {
+        while (true) {
+            printHeader();
+            out.println("Select the type of disaster you're facing:");
+            out.println();
+            out.println("[1] Earthquake");
+            out.println("[2] Typhoon");
+            out.println("[3] Flood");
+            out.println("[4] Fire");
+            out.println("[5] Dispatch Next Most Urgent Report (all disasters)");
+            out.println("[6] Critical Alerts");
+            out.println("[0] Return to Main Menu");
+            out.println("---------------------------------------------------------");
+            out.print("Enter choice: ");
+            String choice = input.nextLine().trim();
+            try {
+                switch (choice) {
+                    case "1" -> disasterMenu(eqManager, "EARTHQUAKE RESPONSE MANAGEMENT");
+                    case "2" -> disasterMenu(tyManager, "TYPHOON RESPONSE MANAGEMENT");
+                    case "3" -> disasterMenu(flManager, "FLOOD RESPONSE MANAGEMENT");
+                    case "4" -> disasterMenu(fiManager, "FIRE RESPONSE MANAGEMENT");
+                    case "5" -> dispatchFlow();
+                    case "6" -> alertsFlow();
+                    case "0" -> {
+                        out.println("\nReturning to Main Menu...");
+                        return;
+                    }
+                    default -> out.println("\n Invalid choice. Try again.");
+                }
+            } catch (Exception e) {
+                out.println("Error: " + e.getMessage());
+            }
+            out.println();
+        }
+    }
+
+    private void dispatchFlow() {
+        out.println();
+        out.println("(5) Dispatch Next Most Urgent Report");
+        Report r = desk.dispatchNext();
+        if (r == null) {
+            out.println(" No active reports are waiting for a responder.");
+            return;
+        }
+        out.println(" Dispatch a responder to:");
+        out.println("--------------------------------------------------------------------------------");
+        out.println(r);
+        out.println("--------------------------------------------------------------------------------");
+        out.println("Nearest Hospitals:");
+        List<Hospital> nearby = desk.manager(ReportId.type(r.getKey())).suggestHospitalsNearby(r);
+        for (int i = 0; i < nearby.size() && i < 3; i++) {
+            out.printf("%d. %s\n", i + 1, nearby.get(i).toString());
+        }
+    }
+
+    private void alertsFlow() {
+        out.println();
+        out.println("(6) Critical Alerts");
+        AlertSubscriber alerts = context.alerts();
+        List<String> recent = alerts.recent();
+        out.println(" Critical reports raised: " + alerts.raisedCount());
+        for (int i = 0; i < recent.size(); i++) out.println((i + 1) + ". " + recent.get(i));
+        out.println("Event delivery:");
+        for (String line : context.events().lagReport()) out.println("  " + line);
+    }
+
+    private void printHeader() {
+        out.println("==========================================================");
+        out.println("                   DURING A DISASTER  ");
+        out.println("        Real-time Response and Emergency Management");
+        out.println("==========================================================");
+        out.println();
+    }
+
+    private void disasterMenu(DisasterManager manager, String header) {
+        boolean continueMenu = true;
+        while (continueMenu) {
+            out.println("-----------------------------------------------------------------------------------");
+            out.println("             " + header);
+            out.println("-----------------------------------------------------------------------------------");
+            out.println("[1] Insert New " + header.split(" ")[0] + " Report");
+            out.println("[2] Search a Report");
+            out.println("[3] Display All Reports");
+            out.println("[4] Delete a Report");
+            out.println("[5] Get Safety Suggestions");
+            out.println("[6] Update Report Status");
+            out.println("[0] Back to Main Menu");
+            out.println("------------------------------------------------------------------------------------");
+            out.print("Enter choice: ");
+            String c = input.nextLine().trim();
+            try {
+                switch (c) {
+                    case "1" -> insertFlow(manager);
+                    case "2" -> searchFlow(manager);
+                    case "3" -> displayAllFlow(manager);
+                    case "4" -> deleteFlow(manager);
+                    case "5" -> suggestionsFlow(manager);
+                    case "6" -> statusFlow(manager);
+                    case "0" -> continueMenu = false;
+                    default -> out.println("Invalid choice. Please choose from the menu.");
+                }
+            } catch (ReportNotFoundException | InvalidChoiceException rnfe) {
+                out.println(" " + rnfe.getMessage());
+            }
+
+            if (!continueMenu) break;
+            out.print("Would you like to perform another action in this disaster menu? (Y/N): ");
+            String again = input.nextLine().trim();
+            if (!again.equalsIgnoreCase("Y")) break;
+        }
+    }
+
+    private void insertFlow(DisasterManager manager) {
+        out.println();
+        out.println("(1) Insert New Report");
+        out.print("Enter Reporter Name: ");
+        String name = input.nextLine().trim();
+        out.print("Enter Location (City/Municipality): ");
+        String loc = input.nextLine().trim();
+        out.print("Enter Description of Incident: ");
+        String desc = input.nextLine().trim();
+        out.print("Enter Type of Injury: ");
+        String injury = input.nextLine().trim();
+        Report r = manager.insertReport(name, loc, desc, injury);
+        out.println();
+        out.println(" Report successfully recorded!");
+        out.println("--------------------------------------------------");
+        out.println(r);
+        out.println("--------------------------------------------------");
+        out.println();
+    }
+
+    private void searchFlow(DisasterManager manager) throws ReportNotFoundException {
+        out.println();
+        out.println("(2) Search a Report");
+        out.print("Enter report ID or reporter name to search: ");
+        String k = input.nextLine().trim();
+        Report r = manager.searchByIdOrName(k);
+        out.println();
+        out.println("Found Report:");
+        out.println("--------------------------------------------------------------------------------");
+        out.println(r);
+        out.println("--------------------------------------------------------------------------------");
+        List<PersonMatch> links = context.matcher().forReport(r);
+        if (!links.isEmpty()) {
+            out.println("Registered survivors who may be this person:");
+            for (PersonMatch m : links) {
+                Survivor s = m.getSurvivor();
+                out.printf(" - %s | %s | %s | needs %s (%.0f%% alike)%n", s.getName(), s.getLocation(), s.getHealthStatus(), s.getAssistanceNeeded(), m.getScore() * 100);
+            }
+        }
+        out.println("\nNearby Hospitals in " + r.getLocation() + ":");
+        List<Hospital> nearby = manager.suggestHospitalsNearby(r);
+        int idx = 1;
+        for (Hospital h : nearby) {
+            out.printf("%d. %s\n", idx++, h.toString());
+            if (idx > 15) break;
+        }
+        out.println();
+    }
+
+    private void displayAllFlow(DisasterManager manager) throws InvalidChoiceException {
+        out.println();
+        out.println("(3) Display All Reports");
+        out.print("Filter by status - Active, Dispatched, Resolved or Deleted (press Enter for all): ");
+        String status = input.nextLine();
+        out.print("Filter by location (press Enter for all): ");
+        String location = input.nextLine();
+        ReportFilter filter = ReportFilter.parse(status, location);
+        out.println("----------------------------------------------------------------------------------------");
+        out.println("                          All Recorded Reports");
+        out.println("----------------------------------------------------------------------------------------");
+        StringBuilder row = new StringBuilder(128);
+        long cursor = 0;
+        int shown = 0;
+        while (true) {
+            ReportPage page = manager.listReports(filter, cursor, PAGE_SIZE);
+            for (Report r : page.getReports()) {
+                row.setLength(0);
+                row.append('#').append(++shown)
+                        .append(" | ").append(r.getId())
+                        .append(" | ").append(r.getReporter())
+                        .append(" | ").append(r.getLocation())
+                        .append(" | ").append(r.getInjuryType())
+                        .append(" | ").append(r.getStatus().getLabel())
+                        .append(" | ").append(truncateText(r.getDescription(), 40))
+                        .append(System.lineSeparator());
+                out.append(row);
+            }
+            cursor = page.getNextCursor();
+            if (!page.hasMore() || (page.getReports().isEmpty() && shown > 0)) break;
+            out.print("-- " + shown + " shown. Press Enter for the next page, or 0 to stop: ");
+            if (input.nextLine().trim().equals("0")) break;
+        }
+        if (shown == 0) {
+            out.println(filter.isAll() ? "No reports recorded." : "No reports match the filter.");
+        } else {
+            out.println("----------------------------------------------------------------------------------------");
+            out.println("Reports listed: " + shown + " (Total Reports: " + manager.getReportCount() + ")");
+        }
+        out.println();
+    }
+
+    // The first ID this station issues for the manager's type, in the form operators will see.
+    private static String exampleId(DisasterManager manager) {
+        return ReportId.toString(ReportId.of(manager.getType(), ReportId.localNode(), 1));
+    }
+
+    private void deleteFlow(DisasterManager manager) throws ReportNotFoundException {
+        out.println();
+        out.println("(4) Delete a Report");
+        out.print("Enter Report ID to delete (e.g., " + exampleId(manager) + "): ");
+        String id = input.nextLine().trim();
+        manager.deleteReport(id);
+        out.println();
+        out.println(" Report successfully deleted! It can still be looked up by its ID for a while.");
+    }
+
+    private void statusFlow(DisasterManager manager) throws ReportNotFoundException, InvalidChoiceException {
+        out.println();
+        out.println("(6) Update Report Status");
+        out.print("Enter Report ID (e.g., " + exampleId(manager) + "): ");
+        String id = input.nextLine().trim();
+        out.print("New status - Active, Dispatched or Resolved: ");
+        String label = input.nextLine().trim();
+        ReportStatus next = ReportStatus.parse(label);
+        if (next == null || next == ReportStatus.DELETED) {
+            throw new InvalidChoiceException("Unknown status: " + label + ". Use Active, Dispatched or Resolved.");
+        }
+        Report r = manager.updateStatus(id, next);
+        out.println();
+        out.println(" Report " + r.getId() + " is now " + r.getStatus().getLabel() + ".");
+    }
+
+    private void suggestionsFlow(DisasterManager manager) throws InvalidChoiceException {
+        out.println();
+        out.println("(5) Get Safety Suggestions");
+        out.println("Select current situation:");
+        out.println("[1] Injured");
+        out.println("[2] Head and Chest Trauma");
+        out.println("[3] Hypothermia / Drowning / Other (contextual)");
+        out.println("[4] Electric Shock / Other urgent");
+        out.println("[0] Cancel");
+        out.print("Enter choice: ");
+        String choiceStr = input.nextLine().trim();
+        if ("0".equals(choiceStr)) {
+            out.println("Cancelled.");
+            return;
+        }
+        int choice;
+        try {
+            choice = Integer.parseInt(choiceStr);
+        } catch (NumberFormatException nfe) {
+            throw new InvalidChoiceException("Choice must be a number.");
+        }
+        List<String> suggestions = manager.getSafetySuggestions(choice);
+        out.println("\nSuggested Actions:");
+        out.println("--------------------------------------------------------------------------------");
+        for (String s : suggestions) {
+            out.println(" - " + s);
+        }
+        out.println("--------------------------------------------------------------------------------");
+
+        out.print("\nEnter current city/location so we can suggest nearby hospitals (or press Enter to show major hospitals): ");
+        String city = input.nextLine().trim();
+        List<String> meant = manager.suggestPlaces(city, 4);
+        if (!meant.isEmpty()) {
+            out.println("Showing hospitals near " + meant.get(0) + "."
+                    + (meant.size() > 1 ? " Other matches: " + String.join(", ", meant.subList(1, meant.size())) : ""));
+        }
+        List<Hospital> nearby = manager.suggestHospitalsNearby(city);
+        out.println("\nNearby Hospitals in Batangas:");
+        out.println("--------------------------------------------------------------------------------");
+        int i = 1;
+        for (Hospital h : nearby) {
+            out.printf("%2d. %s\n", i++, h.toString());
+            if (i > 15) break;
+        }
+        out.println("--------------------------------------------------------------------------------\n");
+    }
+
+    private String truncateText(String s, int max) {
+        if (s == null) return "";
+        if (s.length() <= max) return s;
+        return s.substring(0, max - 3) + "...";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,371 @@
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/* ---------------------------
+   Change events
+   What changed: a report filed, deleted or moved to another status, or
+   a survivor added or removed. One ChangeEvent object per ring slot is
+   reused for every event that passes through the slot, so a subscriber
+   must copy what it needs before onEvent returns. Once every
+   subscriber has handled an event its slot lets go of the report or
+   survivor, so the ring does not keep purged records alive.
+   --------------------------- */
+enum ChangeKind {
+    REPORT_INSERTED, REPORT_STATUS, REPORT_DELETED, SURVIVOR_ADDED, SURVIVOR_DELETED
+}
+
+final class ChangeEvent {
+    ChangeKind kind;
+    Report report;
+    Survivor survivor;
+    // The report's status before and right after the change; null for survivor events (previous also for inserts).
+    ReportStatus previous;
+    ReportStatus status;
+    long publishedNanos;
+
+    public ChangeKind getKind() { return kind; }
+    public Report getReport() { return report; }
+    public Survivor getSurvivor() { return survivor; }
+    public ReportStatus getPrevious() { return previous; }
+    /* The report's status as the change left it; it may have moved on by the time the event is handled. */
+    public ReportStatus getStatus() { return status; }
+    /* System.nanoTime() when the event was published. */
+    public long getPublishedNanos() { return publishedNanos; }
+}
+
+/* ---------------------------
+   Event ring
+   A fixed ring of pre-allocated event slots between the threads that
+   change reports and survivors and the subscribers that react to those
+   changes (statistics, alerts). Publishing claims a slot with one
+   atomic increment, fills it in and marks it published: no lock and
+   no allocation on the operator's thread.
+
+   Every subscriber has its own daemon thread and its own position in
+   the ring, and takes all events published since its last turn as one
+   batch. A publisher only waits if the ring is full, i.e. when the
+   slowest subscriber is a whole ring behind. How far behind each
+   subscriber is (its lag) is tracked, see lagReport().
+
+   A subscriber with nothing to do polls with growing pauses, and after
+   about 20 ms without events it parks until a publisher wakes it, so
+   an idle ring costs no CPU. Publishers only look for sleepers when
+   some subscriber is asleep.
+
+   The journal is not a subscriber: a change is on disk before the
+   operator is told it happened, so journaling stays on the operator's
+   thread.
+   --------------------------- */
+final class EventRing {
+    /* Reacts to events on its own thread. endOfBatch is true for the last event available for now. */
+    interface Subscriber {
+        void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final ChangeEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+    // How far publishers may go when last looked at (see reusable()); they only look again when they reach it.
+    private volatile long gate = Long.MAX_VALUE;
+    // Slots up to this sequence have been handled by every subscriber and cleared; written by the clearing
+    // subscriber only, which holds the clearing flag.
+    private volatile long cleared = -1;
+    private final AtomicBoolean clearing = new AtomicBoolean();
+    // Subscribers parked until the next publish.
+    private final AtomicInteger sleepers = new AtomicInteger();
+
+    public EventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        slots = new ChangeEvent[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeEvent();
+            published.set(i, -1);
+        }
+        mask = capacity - 1;
+    }
+
+    /* The ring size from -Drsr.eventRing, rounded up to a power of two. */
+    static int configuredCapacity() {
+        long wanted = Math.max(2, Math.min(1 << 24, Long.getLong("rsr.eventRing", DEFAULT_CAPACITY)));
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /* ---- Publishing ---- */
+
+    public void publishReport(ChangeKind kind, Report report, ReportStatus previous) {
+        long seq = claim();
+        ChangeEvent e = slots[(int) seq & mask];
+        e.kind = kind;
+        e.report = report;
+        e.survivor = null;
+        e.previous = previous;
+        e.status = report.getStatus();
+        e.publishedNanos = System.nanoTime();
+        published.set((int) seq & mask, seq);
+        if (sleepers.get() > 0) wakeSleepers();
+    }
+
+    public void publishSurvivor(ChangeKind kind, Survivor survivor) {
+        long seq = claim();
+        ChangeEvent e = slots[(int) seq & mask];
+        e.kind = kind;
+        e.report = null;
+        e.survivor = survivor;
+        e.previous = null;
+        e.status = null;
+        e.publishedNanos = System.nanoTime();
+        published.set((int) seq & mask, seq);
+        if (sleepers.get() > 0) wakeSleepers();
+    }
+
+    private void wakeSleepers() {
+        for (Consumer c : consumers) {
+            if (c.asleep) LockSupport.unpark(c.thread);
+        }
+    }
+
+    /* The number of events published so far. */
+    public long publishedCount() {
+        return claimed.get() + 1;
+    }
+
+    private long claim() {
+        long seq = claimed.incrementAndGet();
+        long wrap = seq - slots.length;
+        if (wrap > gate) {
+            long limit;
+            while (wrap > (limit = reusable())) LockSupport.parkNanos(1_000);
+            gate = limit;
+        }
+        return seq;
+    }
+
+    // The last sequence whose slot may be written again: handled by every subscriber and cleared.
+    private long reusable() {
+        return consumers.isEmpty() ? Long.MAX_VALUE : cleared;
+    }
+
+    // Lets go of the records in the slots every subscriber has handled. One subscriber clears at a time; it
+    // looks again after letting go of the flag, so an advance made meanwhile by another is not missed.
+    private void clearHandled() {
+        while (slowestPosition() > cleared) {
+            if (!clearing.compareAndSet(false, true)) return;
+            try {
+                long upTo = slowestPosition();
+                for (long seq = Math.max(cleared + 1, upTo - mask); seq <= upTo; seq++) {
+                    ChangeEvent e = slots[(int) seq & mask];
+                    e.report = null;
+                    e.survivor = null;
+                }
+                cleared = upTo;
+            } finally {
+                clearing.set(false);
+            }
+        }
+    }
+
+    private long slowestPosition() {
+        long slowest = Long.MAX_VALUE;
+        for (Consumer c : consumers) slowest = Math.min(slowest, c.position);
+        return slowest;
+    }
+
+    /* ---- Subscribing ---- */
+
+    /* Starts delivering events published from now on to the subscriber, on a daemon thread "events-<name>". */
+    public void subscribe(String name, Subscriber subscriber) {
+        Consumer c = new Consumer(name, subscriber, claimed.get());
+        // Events published while nobody subscribed are left as they are; clearing starts from here.
+        if (consumers.isEmpty()) cleared = Math.max(cleared, c.position);
+        c.thread = new Thread(c, "events-" + name);
+        c.thread.setDaemon(true);
+        consumers.add(c);
+        gate = Math.min(gate, c.position);
+        c.thread.start();
+    }
+
+    /* One line per subscriber: events and batches delivered, lag (events published but not yet handled,
+       now and at worst) and how long the last event waited in the ring. */
+    public List<String> lagReport() {
+        List<String> lines = new ArrayList<>();
+        long head = claimed.get();
+        for (Consumer c : consumers) {
+            lines.add(c.name + ": " + c.delivered + " events in " + c.batches + " batches, lag " + (head - c.position)
+                    + " (max " + c.maxLag + "), last waited " + c.lastWaitNanos / 1000 + " us"
+                    + (c.failures > 0 ? ", " + c.failures + " failed" : ""));
+        }
+        return lines;
+    }
+
+    private final class Consumer implements Runnable {
+        final String name;
+        final Subscriber subscriber;
+        // The last sequence handled; written only by this consumer's thread.
+        volatile long position;
+        volatile long delivered, batches, maxLag, lastWaitNanos, failures;
+        volatile boolean asleep;
+        Thread thread;
+
+        Consumer(String name, Subscriber subscriber, long position) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long next = position + 1;
+                if (published.get((int) next & mask) != next) {
+                    idle = waitForEvents(next, idle);
+                    continue;
+                }
+                idle = 0;
+                long last = next;
+                while (last - next < mask && published.get((int) (last + 1) & mask) == last + 1) last++;
+                long lag = claimed.get() - position;
+                if (lag > maxLag) maxLag = lag;
+                for (long seq = next; seq <= last; seq++) {
+                    ChangeEvent e = slots[(int) seq & mask];
+                    if (seq == last) lastWaitNanos = System.nanoTime() - e.publishedNanos;
+                    try {
+                        subscriber.onEvent(e, seq, seq == last);
+                    } catch (Exception ex) {
+                        // A failing subscriber must not stall the ring; it loses this event only.
+                        failures++;
+                    }
+                }
+                delivered += last - next + 1;
+                batches++;
+                position = last;
+                clearHandled();
+            }
+        }
+
+        // Pauses of 50 us doubling up to 1 ms, then a park that only a publisher ends. Returns the new idle count.
+        private int waitForEvents(long next, int idle) {
+            if (idle < IDLE_PAUSES) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(Math.min(1000, 50L << idle)));
+                return idle + 1;
+            }
+            // Asleep is set before looking once more, and publishers look at it after publishing, so either
+            // this look sees the event or the publisher sees this subscriber asleep and wakes it.
+            asleep = true;
+            sleepers.incrementAndGet();
+            try {
+                while (published.get((int) next & mask) != next) LockSupport.park(this);
+            } finally {
+                sleepers.decrementAndGet();
+                asleep = false;
+            }
+            return 0;
+        }
+    }
+
+    // About 20 ms of polling (50 us doubling to 1 ms) before an idle subscriber goes to sleep.
+    private static final int IDLE_PAUSES = 25;
+}
+
+/* ---------------------------
+   Critical alerts
+   A subscriber that keeps the latest reports filed (or made Active
+   again) with a Critical injury, for operators to check.
+   --------------------------- */
+final class AlertSubscriber implements EventRing.Subscriber {
+    private static final int KEEP = 10;
+
+    private final ArrayDeque<String> recent = new ArrayDeque<>(KEEP);
+    private final AtomicLong raised = new AtomicLong();
+
+    @Override
+    public void onEvent(ChangeEvent e, long sequence, boolean endOfBatch) {
+        Report r = e.getReport();
+        if (r == null || r.getSeverity() != Severity.CRITICAL) return;
+        boolean nowActive = e.getKind() == ChangeKind.REPORT_INSERTED
+                || (e.getKind() == ChangeKind.REPORT_STATUS && e.getStatus() == ReportStatus.ACTIVE);
+        if (!nowActive) return;
+        String line = r.getId() + " | " + r.getReporter() + " | " + r.getLocation() + " | " + r.getInjuryType();
+        synchronized (recent) {
+            if (recent.size() == KEEP) recent.removeLast();
+            recent.addFirst(line);
+        }
+        raised.incrementAndGet();
+    }
+
+    /* The latest alerts, newest first. */
+    public List<String> recent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public long raisedCount() {
+        return raised.get();
+    }
+}
+
+/* ---------------------------
+   Synthetic event load
+   Publishes report status events at a fixed rate into a ring of its
+   own, with an alert subscriber and a deliberately slower one, and
+   prints every second how far behind each subscriber is. Touches no
+   real reports and no journal.
+   --------------------------- */
+final class SyntheticEventLoad {
+    private SyntheticEventLoad() {}
+
+    static void run(int eventsPerSecond, int seconds, PrintStream out) {
+        EventRing ring = new EventRing(EventRing.configuredCapacity());
+        ring.subscribe("alerts", new AlertSubscriber());
+        ring.subscribe("slow", (e, seq, endOfBatch) -> {
+            if (endOfBatch) LockSupport.parkNanos(200_000);
+        });
+        Report[] samples = new Report[64];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Report(ReportId.of(DisasterType.FLOOD, 0, i + 1), i + 1, "Load " + i, "Nasugbu", "synthetic",
+                    i % 8 == 0 ? "drowning" : "minor cut");
+        }
+        out.println("Publishing " + eventsPerSecond + " events/sec for " + seconds + " s into a ring of " + ring.capacity() + "...");
+        long start = System.nanoTime();
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, eventsPerSecond);
+        long total = (long) eventsPerSecond * seconds;
+        long nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        for (long n = 0; n < total; n++) {
+            long due = start + n * interval;
+            long now;
+            while ((now = System.nanoTime()) < due) Thread.onSpinWait();
+            ring.publishReport(ChangeKind.REPORT_STATUS, samples[(int) n & 63], ReportStatus.ACTIVE);
+            if (now >= nextReport) {
+                printLag(ring, start, out);
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+        printLag(ring, start, out);
+    }
+
+    private static void printLag(EventRing ring, long start, PrintStream out) {
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        out.printf("%5.1f s  %d published (%.0f/s)%n", elapsed, ring.publishedCount(), ring.publishedCount() / elapsed);
+        for (String line : ring.lagReport()) out.println("        " + line);
+    }
+}
@@ -0,0 +1,375 @@
+import java.util.*;
+import java.util.function.Function;
+
+/* ---------------------------
+   Geographic point
+   A latitude/longitude pair. The point is also kept as a unit vector,
+   so comparing distances is plain 3D arithmetic: the straight-line
+   (chord) distance between two unit vectors grows with the distance
+   along the earth's surface.
+   --------------------------- */
+final class GeoPoint {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double lat;
+    private final double lon;
+    final double x;
+    final double y;
+    final double z;
+
+    public GeoPoint(double lat, double lon) {
+        if (!(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            throw new IllegalArgumentException("Not a coordinate: " + lat + "," + lon);
+        }
+        this.lat = lat;
+        this.lon = lon;
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        this.x = Math.cos(phi) * Math.cos(lambda);
+        this.y = Math.cos(phi) * Math.sin(lambda);
+        this.z = Math.sin(phi);
+    }
+
+    public double getLat() { return lat; }
+    public double getLon() { return lon; }
+
+    /* "13.7565,121.0583" or "13.7565 121.0583". Returns null if the text is not a coordinate pair. */
+    static GeoPoint parse(String text) {
+        if (text == null) return null;
+        String t = text.trim();
+        if (t.isEmpty() || !(Character.isDigit(t.charAt(0)) || t.charAt(0) == '-' || t.charAt(0) == '+')) return null;
+        String[] parts = t.split("\\s*,\\s*|\\s+");
+        if (parts.length != 2) return null;
+        try {
+            return new GeoPoint(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    double chordSquared(GeoPoint o) {
+        double dx = x - o.x, dy = y - o.y, dz = z - o.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public double distanceKm(GeoPoint o) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(chordSquared(o)) / 2));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GeoPoint p)) return false;
+        return Double.compare(lat, p.lat) == 0 && Double.compare(lon, p.lon) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(lat) + Double.hashCode(lon);
+    }
+
+    @Override
+    public String toString() {
+        return lat + "," + lon;
+    }
+}
+
+/* ---------------------------
+   Gazetteer
+   Approximate town-centre coordinates of the cities and municipalities
+   of Batangas, so a typed place name can be placed on the map.
+   --------------------------- */
+final class Gazetteer {
+    // Keyed by the normalized name; the longest name has MAX_NAME_WORDS words.
+    private static final Map<String, GeoPoint> PLACES = new HashMap<>();
+    private static final Map<GeoPoint, List<String>> NAMES = new LinkedHashMap<>();
+    private static int maxNameWords;
+
+    static {
+        place(13.7565, 121.0583, "Batangas City");
+        place(13.9411, 121.1631, "Lipa City", "Lipa");
+        place(14.0863, 121.1497, "Tanauan City", "Tanauan");
+        place(14.1079, 121.1414, "Sto. Tomas", "Santo Tomas", "Sto. Tomas City", "Santo Tomas City");
+        place(13.7917, 121.0085, "Bauan");
+        place(13.9371, 120.7325, "Balayan");
+        place(14.0722, 120.6332, "Nasugbu");
+        place(13.8819, 120.9133, "Lemery");
+        place(13.8794, 120.9241, "Taal");
+        place(13.8772, 121.1047, "San Jose");
+        place(14.0950, 121.0203, "Talisay");
+        place(13.8792, 121.2164, "Padre Garcia");
+        place(13.8461, 121.2064, "Rosario");
+        place(13.9306, 120.8133, "Calaca", "Calaca City");
+        place(13.8322, 120.6322, "Calatagan");
+        place(14.0191, 120.7303, "Tuy");
+        place(14.0358, 120.6522, "Lian");
+        place(13.7478, 120.9403, "Mabini");
+        place(13.6461, 121.2128, "Lobo");
+        place(13.7977, 121.0294, "San Pascual");
+        place(14.0417, 121.1583, "Malvar");
+        place(13.8176, 121.1330, "Ibaan");
+        place(13.8261, 121.3956, "San Juan");
+        place(13.7790, 121.1990, "Taysan");
+        place(13.9342, 120.9283, "Agoncillo");
+        place(13.9584, 121.1122, "Mataasnakahoy", "Mataas na Kahoy");
+        place(13.8650, 121.0048, "Alitagtag");
+        place(14.0167, 121.1000, "Balete");
+        place(13.9100, 121.0500, "Cuenca");
+        place(14.0500, 120.9000, "Laurel");
+        place(13.8560, 120.9400, "San Luis");
+        place(13.9280, 120.9510, "San Nicolas");
+        place(13.8650, 120.9800, "Santa Teresita", "Sta. Teresita");
+        place(13.6580, 120.8720, "Tingloy");
+    }
+
+    private Gazetteer() {}
+
+    private static void place(double lat, double lon, String... names) {
+        GeoPoint p = new GeoPoint(lat, lon);
+        NAMES.put(p, List.of(names));
+        for (String n : names) {
+            String key = normalize(n);
+            PLACES.put(key, p);
+            maxNameWords = Math.max(maxNameWords, key.split(" ").length);
+        }
+    }
+
+    /* Every place with its names, main name first, in a fixed order. */
+    static Map<GeoPoint, List<String>> places() {
+        return Collections.unmodifiableMap(NAMES);
+    }
+
+    /* A coordinate pair, or a known place named anywhere in the text ("Brgy. Sabang, Lipa City").
+       The longest place name found wins. Returns null if the text cannot be placed. */
+    static GeoPoint locate(String text) {
+        GeoPoint coordinates = GeoPoint.parse(text);
+        if (coordinates != null || text == null) return coordinates;
+        return namedIn(normalize(text));
+    }
+
+    /* A key grouping location texts by place: the main name of the known place the text names
+       ("Brgy. Sabang, Lipa" -> "lipa city"), otherwise the normalized text itself. */
+    static String placeKey(String text) {
+        if (text == null) return "";
+        String normalized = normalize(text);
+        GeoPoint p = namedIn(normalized);
+        return p == null ? normalized : normalize(NAMES.get(p).get(0));
+    }
+
+    // Looks up every run of up to maxNameWords words of the text, so the cost follows the length of the text,
+    // not the number of names known. On a tie in length the name found first in the text wins.
+    private static GeoPoint namedIn(String normalized) {
+        if (normalized.isEmpty()) return null;
+        int[] starts = new int[normalized.length() / 2 + 1];
+        int words = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') starts[words++] = i;
+        }
+        GeoPoint best = null;
+        int bestLength = 0;
+        for (int w = 0; w < words; w++) {
+            for (int n = 1; n <= maxNameWords && w + n <= words; n++) {
+                int end = w + n < words ? starts[w + n] - 1 : normalized.length();
+                if (end - starts[w] <= bestLength) continue;
+                GeoPoint p = PLACES.get(normalized.substring(starts[w], end));
+                if (p != null) {
+                    best = p;
+                    bestLength = end - starts[w];
+                }
+            }
+        }
+        return best;
+    }
+
+    // Lower case, punctuation to spaces, single spaces: "Sto. Tomas" -> "sto tomas".
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') sb.setLength(end - 1);
+        return sb.toString();
+    }
+}
+
+/* ---------------------------
+   Nearest-neighbour index
+   A static 3D k-d tree over the unit vectors of the items' points,
+   stored flat in arrays (each subtree is a range, its root the middle
+   element). Finding the k nearest items visits only the few branches
+   that can still beat the current k-th best, so a query stays in the
+   microseconds for a nationwide directory. Items at the same distance
+   come back in the order they were given.
+   --------------------------- */
+final class NearestIndex<T> {
+    private final Object[] items;
+    private final int[] order;
+    private final double[] coords;
+
+    /* Items without a point are left out. */
+    public NearestIndex(List<T> source, Function<T, GeoPoint> pointOf) {
+        List<Object> kept = new ArrayList<>(source.size());
+        List<GeoPoint> points = new ArrayList<>(source.size());
+        for (T item : source) {
+            GeoPoint p = pointOf.apply(item);
+            if (p != null) {
+                kept.add(item);
+                points.add(p);
+            }
+        }
+        int n = kept.size();
+        int[] perm = new int[n];
+        double[] xyz = new double[n * 3];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+            GeoPoint p = points.get(i);
+            xyz[i * 3] = p.x;
+            xyz[i * 3 + 1] = p.y;
+            xyz[i * 3 + 2] = p.z;
+        }
+        build(perm, xyz, 0, n, 0);
+        items = new Object[n];
+        order = new int[n];
+        coords = new double[n * 3];
+        for (int i = 0; i < n; i++) {
+            items[i] = kept.get(perm[i]);
+            order[i] = perm[i];
+            System.arraycopy(xyz, perm[i] * 3, coords, i * 3, 3);
+        }
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /* Up to k items, nearest first. */
+    @SuppressWarnings("unchecked")
+    public List<T> nearest(GeoPoint p, int k) {
+        if (k <= 0 || items.length == 0) return Collections.emptyList();
+        Best best = new Best(Math.min(k, items.length));
+        search(p.x, p.y, p.z, 0, items.length, 0, best);
+        int[] found = best.sorted();
+        List<T> out = new ArrayList<>(found.length);
+        for (int i : found) out.add((T) items[i]);
+        return out;
+    }
+
+    private void search(double qx, double qy, double qz, int lo, int hi, int axis, Best best) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        double dx = qx - coords[mid * 3], dy = qy - coords[mid * 3 + 1], dz = qz - coords[mid * 3 + 2];
+        best.offer(mid, dx * dx + dy * dy + dz * dz, order[mid]);
+        double diff = axis == 0 ? dx : axis == 1 ? dy : dz;
+        int next = axis == 2 ? 0 : axis + 1;
+        if (diff < 0) {
+            search(qx, qy, qz, lo, mid, next, best);
+            if (best.mayImprove(diff * diff)) search(qx, qy, qz, mid + 1, hi, next, best);
+        } else {
+            search(qx, qy, qz, mid + 1, hi, next, best);
+            if (best.mayImprove(diff * diff)) search(qx, qy, qz, lo, mid, next, best);
+        }
+    }
+
+    // Puts the median of perm[lo, hi) along the axis in the middle, smaller before it, larger after, then recurses.
+    private static void build(int[] perm, double[] xyz, int lo, int hi, int axis) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        select(perm, xyz, lo, hi - 1, mid, axis);
+        int next = axis == 2 ? 0 : axis + 1;
+        build(perm, xyz, lo, mid, next);
+        build(perm, xyz, mid + 1, hi, next);
+    }
+
+    private static void select(int[] perm, double[] xyz, int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            double pivot = xyz[perm[(lo + hi) >>> 1] * 3 + axis];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (xyz[perm[i] * 3 + axis] < pivot) i++;
+                while (xyz[perm[j] * 3 + axis] > pivot) j--;
+                if (i <= j) {
+                    int t = perm[i];
+                    perm[i++] = perm[j];
+                    perm[j--] = t;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    // The k best candidates so far, as a max-heap on (distance, original order).
+    private static final class Best {
+        private final int[] slot;
+        private final double[] dist;
+        private final int[] rank;
+        private int size;
+
+        Best(int k) {
+            slot = new int[k];
+            dist = new double[k];
+            rank = new int[k];
+        }
+
+        boolean mayImprove(double d) {
+            return size < slot.length || d <= dist[0];
+        }
+
+        void offer(int s, double d, int r) {
+            if (size < slot.length) {
+                int i = size++;
+                set(i, s, d, r);
+                while (i > 0 && worse(i, (i - 1) / 2)) {
+                    swap(i, (i - 1) / 2);
+                    i = (i - 1) / 2;
+                }
+            } else if (d < dist[0] || (d == dist[0] && r < rank[0])) {
+                set(0, s, d, r);
+                int i = 0;
+                while (true) {
+                    int l = 2 * i + 1, w = i;
+                    if (l < size && worse(l, w)) w = l;
+                    if (l + 1 < size && worse(l + 1, w)) w = l + 1;
+                    if (w == i) break;
+                    swap(i, w);
+                    i = w;
+                }
+            }
+        }
+
+        int[] sorted() {
+            Integer[] idx = new Integer[size];
+            for (int i = 0; i < size; i++) idx[i] = i;
+            Arrays.sort(idx, (a, b) -> worse(a, b) ? 1 : worse(b, a) ? -1 : 0);
+            int[] out = new int[size];
+            for (int i = 0; i < size; i++) out[i] = slot[idx[i]];
+            return out;
+        }
+
+        private boolean worse(int a, int b) {
+            return dist[a] > dist[b] || (dist[a] == dist[b] && rank[a] > rank[b]);
+        }
+
+        private void set(int i, int s, double d, int r) {
+            slot[i] = s;
+            dist[i] = d;
+            rank[i] = r;
+        }
+
+        private void swap(int a, int b) {
+            int s = slot[a]; slot[a] = slot[b]; slot[b] = s;
+            double d = dist[a]; dist[a] = dist[b]; dist[b] = d;
+            int r = rank[a]; rank[a] = rank[b]; rank[b] = r;
+        }
+    }
+}
@@ -0,0 +1,545 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/* ---------------------------
+   Guide Catalog
+   Every piece of advice the program shows: the preparation guides, the
+   recovery guides and the safety suggestions for each situation, keyed
+   by section, disaster type and situation number.
+
+   The catalog is a small binary file, memory-mapped read-only. An entry
+   is decoded the first time it is asked for and then shared by every
+   caller as an immutable list, so later lookups allocate nothing.
+   Without a catalog file the built-in advice below is used.
+
+   The file is -Drsr.catalog (default "<rsr.data>/guides.cat") and is
+   watched: replacing it swaps in the new advice without a restart.
+   Catalogs are written from the text form with --compile-catalog,
+   which replaces the file atomically, so a mapping is never truncated
+   under a reader.
+
+   Text form: a header line "[section TYPE]" or "[suggestions TYPE n]"
+   starts an entry and the lines below it are shown verbatim. Lines
+   starting with '#' are comments, a leading '\' escapes a line that
+   would otherwise look like a header or a comment, and blank lines at
+   the end of an entry are dropped.
+
+   Binary form (big-endian):
+     int magic "RSRC", short version, short entry count
+     per entry, sorted by key: int key, int offset of its data
+     entry data: short line count, then per line a short byte length
+     and that many UTF-8 bytes
+   --------------------------- */
+final class GuideCatalog {
+    enum Section { PREPARATION, RECOVERY, SUGGESTIONS }
+
+    private static final int MAGIC = 0x52535243;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int INDEX_BYTES = 8;
+
+    private static GuideCatalog shared;
+
+    private final Path file;
+    private volatile Snapshot current;
+
+    private GuideCatalog(Path file, Snapshot initial) {
+        this.file = file;
+        this.current = initial;
+    }
+
+    /* The process-wide catalog, loaded on first use. Falls back to the built-in advice if the file is missing or bad. */
+    static synchronized GuideCatalog get() {
+        if (shared != null) return shared;
+        Path file = catalogFile();
+        Snapshot initial = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                initial = Snapshot.map(file);
+            } catch (IOException e) {
+                System.out.println(" Warning: guide catalog " + file + " unusable (" + e.getMessage() + "); using built-in advice.");
+            }
+        }
+        shared = new GuideCatalog(file, initial != null ? initial : Snapshot.builtIn());
+        shared.watch();
+        return shared;
+    }
+
+    static Path catalogFile() {
+        String configured = System.getProperty("rsr.catalog");
+        if (configured != null) return Paths.get(configured);
+        return Paths.get(System.getProperty("rsr.data", "rsr-data"), "guides.cat");
+    }
+
+    /* The lines of an entry, or null if the catalog has no such entry. Guides use situation 0. */
+    public List<String> lines(Section section, DisasterType type, int situation) {
+        return current.lines(key(section, type, situation));
+    }
+
+    /* A guide rendered for display, or null if the catalog has no such guide. */
+    public RenderedText rendered(Section section, DisasterType type) {
+        return current.rendered(key(section, type, 0));
+    }
+
+    /* Writes a guide to the operator in one write. */
+    public void showGuide(Section section, DisasterType type, PrintStream out) {
+        RenderedText text = rendered(section, type);
+        if (text != null) {
+            text.writeTo(out);
+        } else {
+            out.println("\n No " + section.name().toLowerCase(Locale.ROOT) + " guide is available for " + type.getDisplayName() + ".");
+        }
+    }
+
+    public int size() {
+        return current.count;
+    }
+
+    private static int key(Section section, DisasterType type, int situation) {
+        if (situation < 0 || situation > 0xFF) return -1;
+        return section.ordinal() << 16 | type.ordinal() << 8 | situation;
+    }
+
+    /* Re-reads the catalog file; the advice in use is only replaced if the new file is valid. */
+    void reload() throws IOException {
+        current = Snapshot.map(file);
+    }
+
+    // On a fresh install the catalog is read before the journal makes the data directory, so it is made here:
+    // a directory that appears later could not be watched.
+    private void watch() {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        WatchService watcher;
+        try {
+            Files.createDirectories(dir);
+            watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            // The loaded advice stays in use; changes to the file need a restart.
+            System.out.println(" Warning: guide catalog changes in " + dir + " will not be picked up (" + e + ").");
+            return;
+        }
+        Path name = file.getFileName();
+        Thread t = new Thread(() -> {
+            while (true) {
+                WatchKey key;
+                try {
+                    key = watcher.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (name.equals(event.context())) changed = true;
+                }
+                key.reset();
+                if (changed) reloadQuietly();
+            }
+        }, "catalog-watch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+            System.out.println(" Guide catalog reloaded from " + file + " (" + size() + " entries).");
+        } catch (IOException e) {
+            System.out.println(" Warning: guide catalog " + file + " not reloaded (" + e.getMessage() + ").");
+        }
+    }
+
+    /* ---- Text form ---- */
+
+    /* Compiles the text form into the binary form. */
+    static byte[] compile(List<String> text) {
+        Map<Integer, List<String>> entries = new TreeMap<>();
+        List<String> entry = null;
+        int lineNo = 0;
+        for (String raw : text) {
+            lineNo++;
+            String line = raw.endsWith("\r") ? raw.substring(0, raw.length() - 1) : raw;
+            if (line.startsWith("#")) continue;
+            if (line.startsWith("[")) {
+                entry = new ArrayList<>();
+                if (entries.put(parseHeader(line, lineNo), entry) != null) {
+                    throw new IllegalArgumentException("Line " + lineNo + ": duplicate entry " + line);
+                }
+                continue;
+            }
+            if (entry == null) {
+                if (line.isBlank()) continue;
+                throw new IllegalArgumentException("Line " + lineNo + ": text before the first [section] header");
+            }
+            entry.add(line.startsWith("\\") ? line.substring(1) : line);
+        }
+        for (List<String> lines : entries.values()) {
+            while (!lines.isEmpty() && lines.get(lines.size() - 1).isBlank()) lines.remove(lines.size() - 1);
+        }
+        return encode(entries);
+    }
+
+    private static int parseHeader(String line, int lineNo) {
+        if (!line.endsWith("]")) throw new IllegalArgumentException("Line " + lineNo + ": unterminated header " + line);
+        String[] parts = line.substring(1, line.length() - 1).trim().split("\\s+");
+        Section section;
+        try {
+            section = Section.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNo + ": unknown section " + parts[0]);
+        }
+        DisasterType type = parts.length > 1 ? DisasterType.parse(parts[1]) : null;
+        if (type == null) throw new IllegalArgumentException("Line " + lineNo + ": missing or unknown disaster type");
+        int situation = 0;
+        if (parts.length > 2) {
+            try {
+                situation = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                situation = -1;
+            }
+        }
+        if (parts.length > 3 || situation < 0 || situation > 0xFF) {
+            throw new IllegalArgumentException("Line " + lineNo + ": bad situation number in " + line);
+        }
+        return key(section, type, situation);
+    }
+
+    private static byte[] encode(Map<Integer, List<String>> entries) {
+        List<byte[]> blobs = new ArrayList<>(entries.size());
+        int size = HEADER_BYTES + INDEX_BYTES * entries.size();
+        for (List<String> lines : entries.values()) {
+            if (lines.size() > Short.MAX_VALUE) throw new IllegalArgumentException("Entry too long: " + lines.size() + " lines");
+            int bytes = 2;
+            for (String line : lines) bytes += 2 + line.getBytes(StandardCharsets.UTF_8).length;
+            ByteBuffer blob = ByteBuffer.allocate(bytes);
+            blob.putShort((short) lines.size());
+            for (String line : lines) {
+                byte[] utf8 = line.getBytes(StandardCharsets.UTF_8);
+                if (utf8.length > Short.MAX_VALUE) throw new IllegalArgumentException("Line too long: " + line);
+                blob.putShort((short) utf8.length).put(utf8);
+            }
+            blobs.add(blob.array());
+            size += bytes;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putShort(VERSION).putShort((short) entries.size());
+        int offset = HEADER_BYTES + INDEX_BYTES * entries.size();
+        int i = 0;
+        for (int key : entries.keySet()) {
+            out.putInt(key).putInt(offset);
+            offset += blobs.get(i++).length;
+        }
+        for (byte[] blob : blobs) out.put(blob);
+        return out.array();
+    }
+
+    /* Compiles a text catalog into a binary one, replacing the target atomically. */
+    static int compileFile(Path source, Path target) throws IOException {
+        byte[] binary = compile(Files.readAllLines(source, StandardCharsets.UTF_8));
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, binary);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return Snapshot.wrap(ByteBuffer.wrap(binary)).count;
+    }
+
+    /* Writes the built-in advice in text form, as a starting point for a custom catalog. */
+    static void exportDefaults(Path target) throws IOException {
+        Files.writeString(target, DEFAULTS, StandardCharsets.UTF_8);
+    }
+
+    /* ---- One loaded catalog ---- */
+
+    private static final class Snapshot {
+        private final ByteBuffer data;
+        private final int count;
+        // The index is copied to the heap: lookups never touch the mapping, only decodes do.
+        private final int[] keys;
+        private final int[] offsets;
+        private final AtomicReferenceArray<List<String>> decoded;
+        private final AtomicReferenceArray<RenderedText> rendered;
+
+        private Snapshot(ByteBuffer data, int[] keys, int[] offsets) {
+            this.data = data;
+            this.count = keys.length;
+            this.keys = keys;
+            this.offsets = offsets;
+            this.decoded = new AtomicReferenceArray<>(count);
+            this.rendered = new AtomicReferenceArray<>(count);
+        }
+
+        static Snapshot builtIn() {
+            return wrap(ByteBuffer.wrap(compile(DEFAULTS.lines().toList())));
+        }
+
+        static Snapshot map(Path file) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                return wrap(mapped);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage());
+            }
+        }
+
+        // Checks the whole structure up front, so a bad file is rejected before it replaces the advice in use.
+        static Snapshot wrap(ByteBuffer data) {
+            try {
+                if (data.getInt(0) != MAGIC) throw new IllegalArgumentException("not a guide catalog");
+                if (data.getShort(4) != VERSION) throw new IllegalArgumentException("unsupported catalog version " + data.getShort(4));
+                int count = data.getShort(6) & 0xFFFF;
+                int[] keys = new int[count];
+                int[] offsets = new int[count];
+                for (int i = 0; i < count; i++) {
+                    keys[i] = data.getInt(HEADER_BYTES + i * INDEX_BYTES);
+                    offsets[i] = data.getInt(HEADER_BYTES + i * INDEX_BYTES + 4);
+                    if (i > 0 && keys[i] <= keys[i - 1]) throw new IllegalArgumentException("catalog index out of order");
+                    int pos = offsets[i];
+                    int lines = data.getShort(pos);
+                    if (lines < 0) throw new IllegalArgumentException("bad line count");
+                    pos += 2;
+                    for (int l = 0; l < lines; l++) {
+                        int len = data.getShort(pos);
+                        if (len < 0 || pos + 2 + len > data.limit()) throw new IllegalArgumentException("truncated entry");
+                        pos += 2 + len;
+                    }
+                }
+                return new Snapshot(data, keys, offsets);
+            } catch (IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("truncated catalog");
+            }
+        }
+
+        List<String> lines(int key) {
+            int slot = find(key);
+            if (slot < 0) return null;
+            List<String> lines = decoded.get(slot);
+            if (lines == null) {
+                lines = decode(slot);
+                if (!decoded.compareAndSet(slot, null, lines)) lines = decoded.get(slot);
+            }
+            return lines;
+        }
+
+        RenderedText rendered(int key) {
+            int slot = find(key);
+            if (slot < 0) return null;
+            RenderedText text = rendered.get(slot);
+            if (text == null) {
+                List<String> lines = lines(key);
+                text = RenderedText.render(out -> lines.forEach(out::println));
+                if (!rendered.compareAndSet(slot, null, text)) text = rendered.get(slot);
+            }
+            return text;
+        }
+
+        private int find(int key) {
+            return key < 0 ? -1 : Math.max(Arrays.binarySearch(keys, key), -1);
+        }
+
+        private List<String> decode(int slot) {
+            int pos = offsets[slot];
+            String[] lines = new String[data.getShort(pos)];
+            pos += 2;
+            for (int i = 0; i < lines.length; i++) {
+                int len = data.getShort(pos);
+                byte[] utf8 = new byte[len];
+                data.get(pos + 2, utf8);
+                lines[i] = new String(utf8, StandardCharsets.UTF_8);
+                pos += 2 + len;
+            }
+            return List.of(lines);
+        }
+    }
+
+    /* ---- Built-in advice ---- */
+
+    private static final String DEFAULTS = """
+            # READY. SET. RECOVER! guide catalog
+            # Compile with: java ReadySetRecover --compile-catalog <this file> <catalog file>
+
+            [suggestions EARTHQUAKE 1]
+            Stop any bleeding with direct pressure.
+            Immobilize fractures if trained to do so.
+            Call for emergency medical help.
+
+            [suggestions EARTHQUAKE 2]
+            Keep the patient still and monitor breathing.
+            Control bleeding and avoid moving the neck/head.
+            Transport to nearest hospital immediately.
+
+            [suggestions EARTHQUAKE 3]
+            Move person to a dry, warm place.
+            Remove wet clothing and cover with blankets.
+            Give warm fluids if conscious and seek medical care.
+
+            [suggestions EARTHQUAKE 4]
+            Do not touch the person if still in contact with the electrical source.
+            Turn off power before approaching.
+            Check breathing and pulse; perform CPR if needed.
+
+            [suggestions TYPHOON 1]
+            Move the injured to safety and apply first aid.
+            Get professional medical help.
+
+            [suggestions TYPHOON 2]
+            Avoid moving the person unless danger is imminent.
+            Stabilize head/neck if suspected trauma.
+
+            [suggestions TYPHOON 3]
+            Dry and warm the victim; prevent further heat loss.
+
+            [suggestions TYPHOON 4]
+            Do not touch person while in contact with electricity; turn off power first.
+            Call emergency services.
+
+            [suggestions FLOOD 1]
+            Prioritize breathing and bleeding control.
+            Avoid moving victims in water unless necessary.
+
+            [suggestions FLOOD 2]
+            Check if the person is breathing.
+            Perform CPR immediately if necessary.
+            Keep them warm and transport urgently.
+
+            [suggestions FLOOD 3]
+            Avoid water near downed power lines.
+            Inform power company and emergency responders.
+
+            [suggestions FLOOD 4]
+            Avoid ingesting flood water.
+            Seek medical advice for wounds exposed to contaminated water.
+
+            [suggestions FIRE 1]
+            Move the injured to fresh air.
+            Control bleeding and call emergency services.
+
+            [suggestions FIRE 2]
+            Cool burns with running water for 10-20 minutes.
+            Avoid applying creams; seek medical care for severe burns.
+
+            [suggestions FIRE 3]
+            Move to fresh air immediately.
+            Loosen clothing around chest and neck; perform rescue breathing if needed.
+
+            [suggestions FIRE 4]
+            Check breathing and pulse; begin CPR if necessary.
+            Call emergency responders immediately.
+
+            [preparation EARTHQUAKE]
+
+            -------------------------------------------------------------------------------------------------------------------------------
+            BEFORE DISASTER: EARTHQUAKE PREPARATION GUIDE
+            -------------------------------------------------------------------------------------------------------------------------------
+            What you need to DO:
+            1) Identify safe spots in every room (under sturdy furniture, away from windows).
+            2) Secure heavy furniture and appliances.
+            3) Make an evacuation plan.
+
+            Your EMERGENCY KIT CHECKLIST for Earthquake:
+            Water (3-5 liters per person)
+            Non-perishable food (canned, dry snacks)
+            Flashlight & spare batteries
+            First aid kit
+            -------------------------------------------------------------------------------------------------------------------------------
+
+            [preparation TYPHOON]
+
+            -------------------------------------------------------------------------------------------------------------------------------
+            BEFORE DISASTER: TYPHOON PREPARATION GUIDE
+            -------------------------------------------------------------------------------------------------------------------------------
+            What you need to DO:
+            1) Secure windows, doors, and loose outdoor items.
+            2) Charge all mobile devices and save emergency contacts.
+            3) Monitor weather updates regularly and plan evacuation routes/safe shelters.
+
+            Your EMERGENCY KIT CHECKLIST for Typhoon:
+            3-day emergency kit (food, water)
+            Flashlight & spare batteries
+            Emergency contacts
+            First aid kit
+            -------------------------------------------------------------------------------------------------------------------------------
+
+            [preparation FLOOD]
+
+            -------------------------------------------------------------------------------------------------------------------------------
+            BEFORE DISASTER: FLOOD PREPARATION GUIDE
+            -------------------------------------------------------------------------------------------------------------------------------
+            What you need to DO:
+            1) Move valuables and important documents to higher ground or upper floors.
+            2) Monitor water levels, weather updates, and local alerts.
+            3) Know the nearest evacuation shelters and safe routes.
+
+            Your EMERGENCY KIT CHECKLIST for Flood:
+            Water (3-5 liters per person)
+            Non-perishable food (canned, dry snacks)
+            First aid kit
+            Rubber boots / water shoes
+            -------------------------------------------------------------------------------------------------------------------------------
+
+            [preparation FIRE]
+
+            -------------------------------------------------------------------------------------------------------------------------------
+            BEFORE DISASTER: FIRE PREPARATION GUIDE
+            -------------------------------------------------------------------------------------------------------------------------------
+            What you need to DO:
+            1) Check and maintain all electrical wiring and appliances.
+            2) Keep fire extinguishers and fire blankets accessible.
+            3) Plan escape routes from your home.
+
+            Your EMERGENCY KIT CHECKLIST for Fire:
+            Fire extinguisher
+            First aid kit
+            Smoke detectors installed & batteries checked
+            Protective gloves and masks (for smoke)
+            -------------------------------------------------------------------------------------------------------------------------------
+
+            [recovery EARTHQUAKE]
+
+             AFTER EARTHQUAKE GUIDE\s
+            - Check for injuries.
+            - Evacuate damaged structures.
+            - Avoid using candles.
+            ------------------------------------------------------
+
+            [recovery TYPHOON]
+
+             AFTER TYPHOON GUIDE\s
+            - Avoid flooded areas.
+            - Stay away from damaged power lines.
+            - Inspect home for structural damage.
+            ------------------------------------------------------
+
+            [recovery FLOOD]
+
+             AFTER FLOOD GUIDE\s
+            - Do not walk on floodwater.
+            - Boil or purify water.
+            - Assist neighbors if safe.
+            ------------------------------------------------------
+
+            [recovery FIRE]
+
+             AFTER FIRE GUIDE\s
+            - Do not re-enter burnt structures.
+            - Watch out for hot spots.
+            - Seek medical care if necessary.
+            ------------------------------------------------------
+            """;
+}
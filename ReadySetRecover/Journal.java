@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/* ---------------------------
+   Journal
+   Write-ahead log of every change made to the report stores and the
+   survivor registry. Each change is appended and forced to disk before
+   the operation returns; replaying the journal on startup rebuilds the
+   in-memory state.
+
+   The journal lives in the directory named by -Drsr.data (default
+   "rsr-data"). Start with -Drsr.journal=off to run purely in memory.
+   --------------------------- */
+final class Journal {
+    static final byte REPORT_INSERTED = 1;
+    static final byte REPORT_DELETED = 2;
+    static final byte REPORT_STATUS = 3;
+    static final byte SURVIVOR_ADDED = 4;
+    static final byte SURVIVOR_DELETED = 5;
+
+    static final Journal DISABLED = new Journal(null);
+
+    private static Journal shared;
+
+    /* Callbacks for replay. Modules override only the records they own. */
+    interface Handler {
+        default void reportInserted(String id, String reporter, String location, String description, String injuryType) {}
+        default void reportDeleted(String id) {}
+        default void reportStatusChanged(String id, String status) {}
+        default void survivorAdded(long id, String name, String location, String healthStatus, String assistanceNeeded) {}
+        default void survivorDeleted(long id) {}
+    }
+
+    private final RecordLog log;
+
+    private Journal(RecordLog log) {
+        this.log = log;
+    }
+
+    /* The process-wide journal, opened on first use. Falls back to in-memory only if it cannot be opened. */
+    static synchronized Journal get() {
+        if (shared != null) return shared;
+        if ("off".equalsIgnoreCase(System.getProperty("rsr.journal"))) {
+            shared = DISABLED;
+            return shared;
+        }
+        Path dir = Paths.get(System.getProperty("rsr.data", "rsr-data"), "journal");
+        try {
+            RecordLog opened = new RecordLog(dir);
+            shared = new Journal(opened);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    opened.close();
+                } catch (IOException ignored) {
+                    // Every acknowledged record has already been forced.
+                }
+            }, "journal-close"));
+        } catch (IOException e) {
+            System.out.println(" Warning: journal unavailable (" + e.getMessage() + "); records will not survive a restart.");
+            shared = DISABLED;
+        }
+        return shared;
+    }
+
+    boolean isEnabled() { return log != null; }
+
+    void reportInserted(Report r) {
+        write(REPORT_INSERTED, reportPayload(r));
+    }
+
+    /* Appends the whole batch and waits for a single flush. */
+    void reportsInserted(List<Report> batch) {
+        if (log == null || batch.isEmpty()) return;
+        long last = 0;
+        for (Report r : batch) last = append(REPORT_INSERTED, reportPayload(r));
+        log.awaitDurable(last);
+    }
+
+    private static RecordLog.PayloadWriter reportPayload(Report r) {
+        return new RecordLog.PayloadWriter()
+                .putString(r.getId())
+                .putString(r.getReporter())
+                .putString(r.getLocation())
+                .putString(r.getDescription())
+                .putString(r.getInjuryType());
+    }
+
+    void reportDeleted(String id) {
+        write(REPORT_DELETED, new RecordLog.PayloadWriter().putString(id));
+    }
+
+    void reportStatusChanged(String id, String status) {
+        write(REPORT_STATUS, new RecordLog.PayloadWriter().putString(id).putString(status));
+    }
+
+    void survivorAdded(Survivor s) {
+        write(SURVIVOR_ADDED, survivorPayload(s));
+    }
+
+    /* Appends the whole batch and waits for a single flush. */
+    void survivorsAdded(List<Survivor> batch) {
+        if (log == null || batch.isEmpty()) return;
+        long last = 0;
+        for (Survivor s : batch) last = append(SURVIVOR_ADDED, survivorPayload(s));
+        log.awaitDurable(last);
+    }
+
+    private static RecordLog.PayloadWriter survivorPayload(Survivor s) {
+        return new RecordLog.PayloadWriter()
+                .putLong(s.getId())
+                .putString(s.getName())
+                .putString(s.getLocation())
+                .putString(s.getHealthStatus())
+                .putString(s.getAssistanceNeeded());
+    }
+
+    void survivorDeleted(long id) {
+        write(SURVIVOR_DELETED, new RecordLog.PayloadWriter().putLong(id));
+    }
+
+    void replay(Handler handler) {
+        if (log == null) return;
+        try {
+            log.replay((type, p) -> {
+                switch (type) {
+                    case REPORT_INSERTED -> handler.reportInserted(RecordLog.getString(p), RecordLog.getString(p),
+                            RecordLog.getString(p), RecordLog.getString(p), RecordLog.getString(p));
+                    case REPORT_DELETED -> handler.reportDeleted(RecordLog.getString(p));
+                    case REPORT_STATUS -> handler.reportStatusChanged(RecordLog.getString(p), RecordLog.getString(p));
+                    case SURVIVOR_ADDED -> handler.survivorAdded(p.getLong(), RecordLog.getString(p),
+                            RecordLog.getString(p), RecordLog.getString(p), RecordLog.getString(p));
+                    case SURVIVOR_DELETED -> handler.survivorDeleted(p.getLong());
+                    default -> { /* unknown record type from a newer version; skip it */ }
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal replay failed", e);
+        }
+    }
+
+    private void write(byte type, RecordLog.PayloadWriter payload) {
+        if (log == null) return;
+        log.awaitDurable(append(type, payload));
+    }
+
+    private long append(byte type, RecordLog.PayloadWriter payload) {
+        try {
+            return log.append(type, payload.toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write failed", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/* ---------------------------
+   Line reader
+   The operator's keyboard: whole lines from one input stream, read
+   through one buffer shared by every module of the session. It only
+   ever hands out whole lines, so there are no half-read lines left for
+   the next menu to trip over (as Scanner.nextInt() used to leave), and
+   it reads from the stream only what is there, so it never waits for
+   input the operator has not typed yet.
+
+   Lines are cut at '\n' (a '\r' before it is dropped) in the raw bytes
+   and decoded once each; that holds for any charset that encodes '\n'
+   as that single byte, which UTF-8 and the platform charsets do.
+   nextInt() parses the digits straight from the buffer, without making
+   a String. Pending output is flushed before the reader waits for
+   input, so prompts written with print() always reach the operator.
+
+   At the end of the input (or when the connection fails) the calls
+   throw NoSuchElementException, as Scanner did.
+   --------------------------- */
+final class LineReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final PrintStream flushFirst;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    // Bytes of a line longer than what is left in buf; grows as needed.
+    private byte[] spill = new byte[256];
+
+    public LineReader(InputStream in, Charset charset, PrintStream flushBeforeRead) {
+        this.in = in;
+        this.charset = charset;
+        this.flushFirst = flushBeforeRead;
+    }
+
+    /* The next line, without its line terminator. */
+    public String nextLine() {
+        if (!fillIfEmpty()) throw new NoSuchElementException("No line found");
+        int start = pos;
+        int nl = indexOfNewline(start);
+        if (nl >= 0) {
+            pos = nl + 1;
+            return decode(buf, start, nl);
+        }
+        // The line runs past the buffered bytes: gather it in spill.
+        int n = 0;
+        while (true) {
+            int end = nl >= 0 ? nl : limit;
+            int chunk = end - pos;
+            if (n + chunk > spill.length) spill = Arrays.copyOf(spill, Math.max(spill.length * 2, n + chunk));
+            System.arraycopy(buf, pos, spill, n, chunk);
+            n += chunk;
+            if (nl >= 0) {
+                pos = nl + 1;
+                return decode(spill, 0, n);
+            }
+            pos = limit;
+            if (!fillIfEmpty()) return decode(spill, 0, n);
+            nl = indexOfNewline(pos);
+        }
+    }
+
+    /* The next line as a whole number; surrounding spaces are allowed. The line is consumed either way;
+       if it is not a number (or out of int range) this throws InputMismatchException. */
+    public int nextInt() {
+        if (!fillIfEmpty()) throw new NoSuchElementException("No line found");
+        int nl = indexOfNewline(pos);
+        if (nl < 0) {
+            // Rare: a number split across reads. Parse the assembled line instead.
+            String line = nextLine().trim();
+            try {
+                return Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                throw new InputMismatchException(line);
+            }
+        }
+        int i = pos, end = nl;
+        pos = nl + 1;
+        while (i < end && isBlank(buf[i])) i++;
+        while (end > i && isBlank(buf[end - 1])) end--;
+        boolean negative = i < end && buf[i] == '-';
+        if (negative || (i < end && buf[i] == '+')) i++;
+        if (i == end) throw new InputMismatchException();
+        long value = 0;
+        for (; i < end; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new InputMismatchException();
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new InputMismatchException();
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new InputMismatchException();
+        return (int) value;
+    }
+
+    /* True if input is already waiting, so reading a line would (most likely) not block. */
+    public boolean ready() {
+        if (pos < limit) return true;
+        try {
+            return !eof && in.available() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private String decode(byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') end--;
+        return new String(bytes, start, end - start, charset);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    // Makes sure there is at least one unread byte; false at the end of the input.
+    private boolean fillIfEmpty() {
+        if (pos < limit) return true;
+        if (eof) return false;
+        if (flushFirst != null) flushFirst.flush();
+        try {
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while (n == 0);
+            if (n < 0) {
+                eof = true;
+                return false;
+            }
+            pos = 0;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            eof = true;
+            return false;
+        }
+    }
+}
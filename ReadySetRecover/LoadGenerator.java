@@ -0,0 +1,358 @@
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/* ---------------------------
+   Load generator
+   Drives the real console menus end to end, as several operators
+   typing at once: every operator is a ReadySetRecover session on its
+   own thread whose keyboard is a generated script of menu inputs.
+
+   Each operation is a round trip from the main menu back to it (file a
+   report, search one, delete one, dispatch the most urgent, view a
+   guide, add or search a survivor, find a person). The session's input
+   hands the application one operation's keystrokes at a time; when the
+   application asks for more input, the operation is complete. That is
+   where its latency is taken, with no need to parse prompts.
+
+   Operations are started on a fixed schedule (the rate), not when the
+   previous one finishes, and latency counts from the scheduled start,
+   so a slow system shows up as growing latency instead of a quietly
+   lower rate. Service time (from when the keystrokes were actually
+   delivered) is reported too.
+
+   Everything is derived from the seed: the same seed, rate and number
+   of operators give the same operations, so runs can be compared. An
+   operation fails if its output lacks what it should show or does not
+   end back at the main menu; the run fails on any failure, on counts
+   that do not add up at the end, or on a p99 above -Drsr.loadMaxP99Ms.
+   --------------------------- */
+final class LoadGenerator {
+    enum Op {
+        INSERT_REPORT("insert report", 30, "Report successfully recorded!"),
+        SEARCH_REPORT("search report", 20, "Found Report:"),
+        DELETE_REPORT("delete report", 10, "Report successfully deleted!"),
+        DISPATCH("dispatch", 10, "(5) Dispatch Next Most Urgent Report"),
+        VIEW_GUIDE("view guide", 10, "Press Enter to continue..."),
+        ADD_SURVIVOR("add survivor", 10, "Survivor added successfully."),
+        SEARCH_SURVIVOR("search survivor", 5, "Found:"),
+        FIND_PERSON("find person", 5, "across all reports and survivors.");
+
+        final String label;
+        final int weight;
+        final String expect;
+
+        Op(String label, int weight, String expect) {
+            this.label = label;
+            this.weight = weight;
+            this.expect = expect;
+        }
+    }
+
+    private static final Op[] OPS = Op.values();
+    private static final int TOTAL_WEIGHT = Arrays.stream(OPS).mapToInt(op -> op.weight).sum();
+    private static final Pattern MAIN_MENU_PROMPT = Pattern.compile("Enter your choice \\(0-\\d\\): $");
+    private static final Pattern REPORT_ID = Pattern.compile("Report ID : (\\S+)");
+    private static final String[] FIRST = {"Juan", "Maria", "Jose", "Ana", "Pedro", "Rosa", "Carlo", "Liza", "Mark", "Joy", "Paolo", "Grace"};
+    private static final String[] LAST = {"Reyes", "Santos", "Cruz", "Bautista", "Garcia", "Mendoza", "Ramos", "Aquino", "Castillo", "Torres"};
+    private static final String[] PLACES = {"Lipa City", "Batangas City", "Tanauan City", "Nasugbu", "Bauan", "Lemery", "Sto. Tomas", "Balayan", "13.94,121.16"};
+    private static final String[] INJURIES = {"fracture", "minor cut", "burns", "drowning", "none", "sprain", "head injury", "smoke inhalation"};
+
+    private final int operations;
+    private final int opsPerSecond;
+    private final int operators;
+    private final long seed;
+
+    public LoadGenerator(int operations, int opsPerSecond, int operators, long seed) {
+        if (operations < 1 || opsPerSecond < 1 || operators < 1) throw new IllegalArgumentException("Operations, rate and operators must be positive");
+        this.operations = operations;
+        this.opsPerSecond = opsPerSecond;
+        this.operators = operators;
+        this.seed = seed;
+    }
+
+    /* Runs the load against the context's services and prints the results. Returns true if the run passed. */
+    public boolean run(AppContext context, PrintStream log) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) * operators / opsPerSecond;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        List<Operator> team = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < operators; i++) {
+            int quota = operations / operators + (i < operations % operators ? 1 : 0);
+            // Operators start spread over one interval, not all at once.
+            Operator op = new Operator(i, quota, start + interval * i / operators, interval);
+            team.add(op);
+            Thread t = new Thread(() -> op.drive(context), "load-operator-" + i);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return report(team, context, seconds, log);
+    }
+
+    private boolean report(List<Operator> team, AppContext context, double seconds, PrintStream log) {
+        log.printf("%-16s%7s%7s%10s%10s%10s%10s%10s%12s%n", "operation", "count", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        int failed = 0, completed = 0;
+        long[] allLatency = new long[0];
+        for (Op op : OPS) {
+            long[] latency = new long[0];
+            long[] service = new long[0];
+            int opFailed = 0;
+            for (Operator o : team) {
+                latency = concat(latency, o.latency[op.ordinal()], o.count[op.ordinal()]);
+                service = concat(service, o.service[op.ordinal()], o.count[op.ordinal()]);
+                opFailed += o.failed[op.ordinal()];
+            }
+            if (latency.length == 0) continue;
+            Arrays.sort(latency);
+            Arrays.sort(service);
+            printRow(log, op.label, latency, opFailed, percentile(service, 0.99));
+            allLatency = concat(allLatency, latency, latency.length);
+            failed += opFailed;
+            completed += latency.length;
+        }
+        Arrays.sort(allLatency);
+        long p99 = allLatency.length == 0 ? 0 : percentile(allLatency, 0.99);
+        if (allLatency.length > 0) printRow(log, "all", allLatency, failed, -1);
+        log.printf("Throughput: %.1f ops/s (target %d) over %.1f s%n", completed / seconds, opsPerSecond, seconds);
+
+        long expectedReports = 0, expectedSurvivors = 0;
+        for (Operator o : team) {
+            expectedReports += o.reportsFiled - o.reportsDeleted;
+            expectedSurvivors += o.survivorsAdded;
+        }
+        long reports = 0;
+        for (DisasterManager m : context.desk().managers()) reports += m.getReportCount();
+        int survivors = context.survivors().size();
+        boolean consistent = reports == expectedReports && survivors == expectedSurvivors;
+        log.println("Reports left: " + reports + " (expected " + expectedReports + "), survivors: " + survivors + " (expected " + expectedSurvivors + ")");
+
+        long maxP99 = Long.getLong("rsr.loadMaxP99Ms", -1);
+        boolean fastEnough = maxP99 < 0 || p99 <= TimeUnit.MILLISECONDS.toNanos(maxP99);
+        boolean passed = failed == 0 && consistent && completed == operations && fastEnough;
+        log.println(passed ? "Load test PASSED" : "Load test FAILED"
+                + (failed > 0 ? "; " + failed + " operations failed" : "")
+                + (completed != operations ? "; only " + completed + " of " + operations + " operations ran" : "")
+                + (!consistent ? "; report or survivor counts do not add up" : "")
+                + (!fastEnough ? "; p99 above " + maxP99 + " ms" : ""));
+        return passed;
+    }
+
+    private static void printRow(PrintStream log, String label, long[] sorted, int failed, long serviceP99) {
+        log.printf("%-16s%7d%7d%10.2f%10.2f%10.2f%10.2f%10.2f%12s%n", label, sorted.length, failed,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)), millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)), millis(sorted[sorted.length - 1]),
+                serviceP99 < 0 ? "" : String.format("%.2f", millis(serviceP99)));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static long[] concat(long[] a, long[] b, int bLength) {
+        long[] out = Arrays.copyOf(a, a.length + bLength);
+        System.arraycopy(b, 0, out, a.length, bLength);
+        return out;
+    }
+
+    /* ---- One operator: a session whose keyboard is the script ---- */
+
+    private final class Operator extends InputStream {
+        final int index;
+        final int quota;
+        final long interval;
+        final Random random;
+        final ByteArrayOutputStream screen = new ByteArrayOutputStream(8192);
+        // Reports this operator filed and has not deleted: {id, reporter}. Survivors it added.
+        final List<String[]> ownReports = new ArrayList<>();
+        final List<String> ownSurvivors = new ArrayList<>();
+        final long[][] latency = new long[OPS.length][];
+        final long[][] service = new long[OPS.length][];
+        final int[] count = new int[OPS.length];
+        final int[] failed = new int[OPS.length];
+        long reportsFiled, reportsDeleted, survivorsAdded;
+
+        private byte[] keys = new byte[0];
+        private int pos;
+        private Op current;
+        private String[] deleting;
+        private int started;
+        private long scheduledAt;
+        private long deliveredAt;
+        private boolean exited;
+
+        Operator(int index, int quota, long firstStart, long interval) {
+            this.index = index;
+            this.quota = quota;
+            this.interval = interval;
+            this.random = new Random(seed * 31 + index);
+            this.scheduledAt = firstStart - interval;
+            for (int i = 0; i < OPS.length; i++) {
+                latency[i] = new long[quota];
+                service[i] = new long[quota];
+            }
+        }
+
+        void drive(AppContext context) {
+            Session session = new Session(this, screen, StandardCharsets.UTF_8);
+            try {
+                new ReadySetRecover(session, context).run();
+            } catch (NoSuchElementException | IllegalStateException endOfScript) {
+                // The script ran out mid-menu; counted as a failure of the operation in progress.
+            }
+        }
+
+        @Override
+        public int read() {
+            if (pos == keys.length && !advance()) return -1;
+            return keys[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (pos == keys.length && !advance()) return -1;
+            int n = Math.min(len, keys.length - pos);
+            System.arraycopy(keys, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return keys.length - pos;
+        }
+
+        // The application wants more input: the current operation is done. Start the next one when it is due.
+        private boolean advance() {
+            long now = System.nanoTime();
+            if (current != null) finish(now);
+            current = null;
+            if (started == quota) {
+                if (exited) return false;
+                exited = true;
+                keys = "0\n".getBytes(StandardCharsets.UTF_8);
+                pos = 0;
+                screen.reset();
+                return true;
+            }
+            scheduledAt += interval;
+            long wait;
+            while ((wait = scheduledAt - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+            current = pick();
+            keys = script(current).getBytes(StandardCharsets.UTF_8);
+            pos = 0;
+            started++;
+            screen.reset();
+            deliveredAt = System.nanoTime();
+            return true;
+        }
+
+        private void finish(long now) {
+            int i = current.ordinal();
+            latency[i][count[i]] = now - scheduledAt;
+            service[i][count[i]] = now - deliveredAt;
+            count[i]++;
+            String text = screen.toString(StandardCharsets.UTF_8);
+            boolean ok = text.contains(current.expect) && MAIN_MENU_PROMPT.matcher(text).find();
+            if (ok && current == Op.INSERT_REPORT) {
+                Matcher m = REPORT_ID.matcher(text);
+                ok = m.find();
+                if (ok) {
+                    ownReports.add(new String[] {m.group(1), lastReporter});
+                    reportsFiled++;
+                }
+            } else if (ok && current == Op.DELETE_REPORT) {
+                reportsDeleted++;
+            } else if (ok && current == Op.ADD_SURVIVOR) {
+                ownSurvivors.add(lastSurvivor);
+                survivorsAdded++;
+            } else if (!ok && current == Op.DELETE_REPORT) {
+                ownReports.add(deleting);
+            }
+            if (!ok) failed[i]++;
+        }
+
+        private Op pick() {
+            int r = random.nextInt(TOTAL_WEIGHT);
+            for (Op op : OPS) {
+                if ((r -= op.weight) < 0) {
+                    // Nothing of one's own to search for or delete yet: file a report instead.
+                    if ((op == Op.SEARCH_REPORT || op == Op.DELETE_REPORT || op == Op.FIND_PERSON) && ownReports.isEmpty()) return Op.INSERT_REPORT;
+                    if (op == Op.SEARCH_SURVIVOR && ownSurvivors.isEmpty()) return Op.ADD_SURVIVOR;
+                    return op;
+                }
+            }
+            return Op.INSERT_REPORT;
+        }
+
+        private String lastReporter;
+        private String lastSurvivor;
+
+        private String script(Op op) {
+            int type = 1 + random.nextInt(4);
+            switch (op) {
+                case INSERT_REPORT -> {
+                    lastReporter = name();
+                    return "2\n" + type + "\n1\n" + lastReporter + "\n" + pickFrom(PLACES) + "\nCollapsed wall, needs help\n"
+                            + pickFrom(INJURIES) + "\nN\n0\n";
+                }
+                case SEARCH_REPORT -> {
+                    String[] r = ownReports.get(random.nextInt(ownReports.size()));
+                    String key = random.nextBoolean() ? r[0] : r[1];
+                    return "2\n" + typeOf(r[0]) + "\n2\n" + key + "\nN\n0\n";
+                }
+                case DELETE_REPORT -> {
+                    String[] r = ownReports.remove(random.nextInt(ownReports.size()));
+                    deleting = r;
+                    return "2\n" + typeOf(r[0]) + "\n4\n" + r[0] + "\nN\n0\n";
+                }
+                case DISPATCH -> {
+                    return "2\n5\n0\n";
+                }
+                case VIEW_GUIDE -> {
+                    return "1\n" + type + "\n\n0\n";
+                }
+                case ADD_SURVIVOR -> {
+                    lastSurvivor = name();
+                    return "3\n2\n" + lastSurvivor + "\n" + pickFrom(PLACES) + "\nInjured\nFood and water\n0\n";
+                }
+                case SEARCH_SURVIVOR -> {
+                    return "3\n4\n" + ownSurvivors.get(random.nextInt(ownSurvivors.size())) + "\n0\n";
+                }
+                default -> {
+                    // By surname, which other operators' reports and survivors share.
+                    String[] r = ownReports.get(random.nextInt(ownReports.size()));
+                    return "4\n" + r[1].split(" ")[1] + "\n";
+                }
+            }
+        }
+
+        // Unique per operator and run, so searches find the intended record.
+        private String name() {
+            return pickFrom(FIRST) + " " + pickFrom(LAST) + " " + index + "-" + started;
+        }
+
+        private String pickFrom(String[] options) {
+            return options[random.nextInt(options.length)];
+        }
+
+        // The During Disaster menu entry for a report ID's disaster type.
+        private int typeOf(String id) {
+            long key = ReportId.parse(id);
+            return key == ReportId.INVALID ? 1 : ReportId.type(key).ordinal() + 1;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/* ---------------------------
+   Metrics
+   How often the hot paths run and how long they take: report insert and
+   search, hospital lookup by city, survivor search and sorting. Every
+   path has a Timer (a call count and a latency histogram); a few
+   outcomes, such as searches that found nothing, have a Counter.
+
+   Instrumented code reads the clock with Metrics.now() and hands the
+   start time back to the timer when done. Both check the ENABLED flag
+   first; it is a constant, so with -Drsr.metrics=off the JIT removes
+   the instrumentation altogether.
+
+   publish() makes every timer and counter visible over JMX (in jconsole
+   or VisualVM, under "readysetrecover") and, with -Drsr.metricsFile=<f>,
+   appends a line per timer to that file every -Drsr.metricsSeconds
+   (default 60). The file is renamed to <f>.1 once it passes 10 MB.
+   --------------------------- */
+final class Metrics {
+    static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("rsr.metrics"));
+
+    static final Timer INSERT_REPORT = new Timer("insertReport");
+    static final Timer SEARCH_REPORT = new Timer("searchByIdOrName");
+    static final Timer FIND_HOSPITALS = new Timer("findHospitalsByCity");
+    static final Timer SEARCH_SURVIVORS = new Timer("survivorSearch");
+    static final Timer SORT_SURVIVORS = new Timer("survivorSort");
+    static final Counter REPORTS_NOT_FOUND = new Counter("reportsNotFound");
+    static final Counter SURVIVORS_NOT_FOUND = new Counter("survivorsNotFound");
+
+    private static final List<Timer> TIMERS = List.of(INSERT_REPORT, SEARCH_REPORT, FIND_HOSPITALS, SEARCH_SURVIVORS, SORT_SURVIVORS);
+    private static final List<Counter> COUNTERS = List.of(REPORTS_NOT_FOUND, SURVIVORS_NOT_FOUND);
+    private static final long MAX_DUMP_BYTES = 10L * 1024 * 1024;
+    private static boolean published;
+
+    private Metrics() {}
+
+    /* The start time to pass to Timer.record, or 0 when metrics are off. */
+    static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /* Registers the MBeans and starts the periodic dump, once per process, on a thread of its own: starting
+       the JMX server takes a few hundred milliseconds the operator should not wait for. Does nothing when
+       metrics are off. */
+    static synchronized void publish() {
+        if (!ENABLED || published) return;
+        published = true;
+        Thread t = new Thread(Metrics::register, "metrics-publish");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Timer t : TIMERS) server.registerMBean(new TimerBean(t), new ObjectName("readysetrecover:type=Latency,name=" + t.name));
+            server.registerMBean(new CounterBean(), new ObjectName("readysetrecover:type=Counters"));
+        } catch (JMException | SecurityException e) {
+            System.out.println(" Warning: metrics not available over JMX (" + e.getMessage() + ").");
+        }
+        String file = System.getProperty("rsr.metricsFile");
+        if (file != null && !file.isBlank()) {
+            long seconds = Math.max(1, Long.getLong("rsr.metricsSeconds", 60));
+            Dumper dumper = new Dumper(Paths.get(file));
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleAtFixedRate(dumper, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /* One line per timer with anything recorded, e.g. for a status screen. */
+    static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Timer t : TIMERS) {
+            Snapshot s = t.snapshot();
+            if (s.count > 0) lines.add(t.name + ": " + s);
+        }
+        for (Counter c : COUNTERS) lines.add(c.name + ": " + c.get());
+        return lines;
+    }
+
+    /* ---- Counters and timers ---- */
+
+    static final class Counter {
+        final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        void increment() {
+            if (ENABLED) value.increment();
+        }
+
+        long get() {
+            return value.sum();
+        }
+    }
+
+    /* A count, a total and a maximum, and a histogram of latencies in log-linear buckets: 32 buckets for each
+       power of two, so any recorded value is within about 3% of its bucket's. The buckets cover 1 ns to about
+       an hour in a fixed 1,216 counters; recording is a few instructions and atomic adds, never a lock. */
+    static final class Timer {
+        static final int SUB_BITS = 5;
+        static final int SUB_BUCKETS = 1 << SUB_BITS;
+        static final int BUCKETS = (42 - SUB_BITS + 1) * SUB_BUCKETS;
+
+        final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        // Bumped before and after each reset, so it is odd while one is under way.
+        private final AtomicLong resets = new AtomicLong();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        /* Records the time since start, a value from Metrics.now(). */
+        void record(long start) {
+            if (!ENABLED) return;
+            long nanos = System.nanoTime() - start;
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(bucket(nanos));
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) nanos;
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS + 1;
+            int index = exponent * SUB_BUCKETS + (int) (nanos >>> (exponent - 1)) - SUB_BUCKETS;
+            return Math.min(index, BUCKETS - 1);
+        }
+
+        // The highest value that falls in the bucket.
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS;
+            long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << (exponent - 1)) - 1;
+        }
+
+        /* Never straddles a reset: a copy that overlapped one is taken again. */
+        Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            while (true) {
+                long generation = resets.get();
+                if ((generation & 1) == 0) {
+                    for (int i = 0; i < BUCKETS; i++) copy[i] = buckets.get(i);
+                    Snapshot s = new Snapshot(copy, count.sum(), totalNanos.sum(), maxNanos.get(), generation);
+                    if (resets.get() == generation) return s;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        synchronized void reset() {
+            resets.incrementAndGet();
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            resets.incrementAndGet();
+        }
+    }
+
+    /* A timer's histogram at one moment. Readers copy the buckets while writers go on, so a snapshot taken
+       during heavy use may be off by the few calls recorded meanwhile. */
+    static final class Snapshot {
+        final long[] buckets;
+        final long count;
+        final long totalNanos;
+        final long maxNanos;
+        final long generation;
+
+        Snapshot(long[] buckets, long count, long totalNanos, long maxNanos, long generation) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.generation = generation;
+        }
+
+        /* What happened between an earlier snapshot and this one; the maximum is still the all-time one.
+           If the timer was reset in between, that is everything recorded since the reset, i.e. this one. */
+        Snapshot since(Snapshot earlier) {
+            if (earlier.generation != generation) return this;
+            long[] diff = new long[buckets.length];
+            for (int i = 0; i < diff.length; i++) diff[i] = buckets[i] - earlier.buckets[i];
+            return new Snapshot(diff, count - earlier.count, totalNanos - earlier.totalNanos, maxNanos, generation);
+        }
+
+        /* The latency in nanoseconds that the fraction p (e.g. 0.99) of calls did not exceed. */
+        long percentile(double p) {
+            long inBuckets = 0;
+            for (long b : buckets) inBuckets += b;
+            if (inBuckets == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * inBuckets));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return Math.min(Timer.upperBound(i), maxNanos);
+            }
+            return maxNanos;
+        }
+
+        long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    count, meanNanos() / 1e3, percentile(0.50) / 1e3, percentile(0.90) / 1e3,
+                    percentile(0.99) / 1e3, percentile(0.999) / 1e3, maxNanos / 1e3);
+        }
+    }
+
+    /* ---- JMX ---- */
+
+    // Dynamic MBeans, as a standard MBean's interface would have to be public and in a file of its own.
+    private static final class TimerBean implements DynamicMBean {
+        private static final String[] ATTRIBUTES = {"Count", "MeanMicros", "P50Micros", "P90Micros", "P99Micros", "P999Micros", "MaxMicros"};
+        private final Timer timer;
+
+        TimerBean(Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            return value(timer.snapshot(), attribute);
+        }
+
+        private static Object value(Snapshot s, String attribute) throws AttributeNotFoundException {
+            return switch (attribute) {
+                case "Count" -> s.count;
+                case "MeanMicros" -> s.meanNanos() / 1e3;
+                case "P50Micros" -> s.percentile(0.50) / 1e3;
+                case "P90Micros" -> s.percentile(0.90) / 1e3;
+                case "P99Micros" -> s.percentile(0.99) / 1e3;
+                case "P999Micros" -> s.percentile(0.999) / 1e3;
+                case "MaxMicros" -> s.maxNanos / 1e3;
+                default -> throw new AttributeNotFoundException(attribute);
+            };
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Snapshot s = timer.snapshot();
+            AttributeList list = new AttributeList();
+            for (String a : attributes) {
+                try {
+                    list.add(new Attribute(a, value(s, a)));
+                } catch (AttributeNotFoundException ignored) {
+                    // Left out of the list, as the interface specifies.
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) {
+            if (!"reset".equals(action)) throw new UnsupportedOperationException(action);
+            timer.reset();
+            return null;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[ATTRIBUTES.length];
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                String type = i == 0 ? "long" : "double";
+                attributes[i] = new MBeanAttributeInfo(ATTRIBUTES[i], type, ATTRIBUTES[i] + " of " + timer.name, true, false, false);
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clears the histogram", null, "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(TimerBean.class.getName(), "Latency of " + timer.name, attributes, null, new MBeanOperationInfo[] {reset}, null);
+        }
+    }
+
+    private static final class CounterBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            for (Counter c : COUNTERS) {
+                if (c.name.equals(attribute)) return c.get();
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String a : attributes) {
+                try {
+                    list.add(new Attribute(a, getAttribute(a)));
+                } catch (AttributeNotFoundException ignored) {
+                    // Left out of the list, as the interface specifies.
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(action);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[COUNTERS.size()];
+            for (int i = 0; i < attributes.length; i++) {
+                attributes[i] = new MBeanAttributeInfo(COUNTERS.get(i).name, "long", COUNTERS.get(i).name, true, false, false);
+            }
+            return new MBeanInfo(CounterBean.class.getName(), "Event counts", attributes, null, null, null);
+        }
+    }
+
+    /* ---- Rolling dump file ---- */
+
+    // Appends what happened since the last dump; the file is kept under MAX_DUMP_BYTES by renaming it to <file>.1.
+    private static final class Dumper implements Runnable {
+        private final Path file;
+        private final Snapshot[] last = new Snapshot[TIMERS.size()];
+
+        Dumper(Path file) {
+            this.file = file;
+            for (int i = 0; i < last.length; i++) last[i] = TIMERS.get(i).snapshot();
+        }
+
+        @Override
+        public void run() {
+            StringBuilder sb = new StringBuilder(1024);
+            String time = Instant.now().toString();
+            for (int i = 0; i < last.length; i++) {
+                Snapshot now = TIMERS.get(i).snapshot();
+                Snapshot interval = now.since(last[i]);
+                last[i] = now;
+                sb.append(time).append(' ').append(TIMERS.get(i).name).append(' ').append(interval)
+                        .append(" total=").append(now.count).append('\n');
+            }
+            for (Counter c : COUNTERS) sb.append(time).append(' ').append(c.name).append(" total=").append(c.get()).append('\n');
+            try {
+                if (Files.exists(file) && Files.size(file) > MAX_DUMP_BYTES) {
+                    Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                }
+                try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    w.append(sb);
+                }
+            } catch (IOException e) {
+                // Keep trying at the next interval; the metrics themselves are unaffected.
+                System.out.println(" Warning: metrics not written to " + file + " (" + e.getMessage() + ").");
+            }
+        }
+    }
+}
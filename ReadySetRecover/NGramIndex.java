@@ -0,0 +1,98 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/* ---------------------------
+   N-gram substring index
+   Maps every trigram of an item's (already normalized) key to the items
+   containing it. A substring query only has to look at the items listed
+   under its rarest trigram, instead of scanning every item.
+   Postings are kept in the given order, so the first verified match is
+   also the first match in that order.
+
+   Safe for concurrent use. Emptied postings are left in place: the set
+   of distinct trigrams is small, and never removing them means an add
+   can never land in a set that another thread is discarding.
+   --------------------------- */
+class NGramIndex<T> {
+    static final int GRAM = 3;
+
+    private final Map<String, Posting<T>> postings = new ConcurrentHashMap<>();
+    private final Function<T, String> keyOf;
+    private final Comparator<? super T> order;
+
+    public NGramIndex(Function<T, String> keyOf, Comparator<? super T> order) {
+        this.keyOf = keyOf;
+        this.order = order;
+    }
+
+    /* Queries shorter than this cannot use the index and must be answered by a scan. */
+    static boolean canSearch(String query) {
+        return query.length() >= GRAM;
+    }
+
+    public void add(T item) {
+        String key = keyOf.apply(item);
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            postings.computeIfAbsent(key.substring(i, i + GRAM), g -> new Posting<>(order)).add(item);
+        }
+    }
+
+    public void remove(T item) {
+        String key = keyOf.apply(item);
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            String gram = key.substring(i, i + GRAM);
+            Posting<T> items = postings.get(gram);
+            if (items != null) items.remove(item);
+        }
+    }
+
+    /* Items whose key contains the query, in index order, up to limit. The query must be normalized. */
+    public List<T> find(String query, int limit) {
+        Posting<T> rarest = rarestPosting(query);
+        if (rarest == null) return Collections.emptyList();
+        List<T> out = new ArrayList<>();
+        for (T item : rarest.items) {
+            if (keyOf.apply(item).contains(query)) {
+                out.add(item);
+                if (out.size() >= limit) break;
+            }
+        }
+        return out;
+    }
+
+    public T first(String query) {
+        List<T> found = find(query, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private Posting<T> rarestPosting(String query) {
+        Posting<T> rarest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Posting<T> items = postings.get(query.substring(i, i + GRAM));
+            if (items == null) return null;
+            if (rarest == null || items.size.get() < rarest.size.get()) rarest = items;
+        }
+        return rarest;
+    }
+
+    // ConcurrentSkipListSet.size() walks the whole set, so the size is tracked separately.
+    private static final class Posting<T> {
+        final ConcurrentSkipListSet<T> items;
+        final AtomicInteger size = new AtomicInteger();
+
+        Posting(Comparator<? super T> order) {
+            items = new ConcurrentSkipListSet<>(order);
+        }
+
+        void add(T item) {
+            if (items.add(item)) size.incrementAndGet();
+        }
+
+        void remove(T item) {
+            if (items.remove(item)) size.decrementAndGet();
+        }
+    }
+}
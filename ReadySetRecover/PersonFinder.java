@@ -0,0 +1,168 @@
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/* ---------------------------
+   Search hit
+   One person found by the unified search: a report from one of the
+   disaster managers, or a registered survivor.
+   --------------------------- */
+final class SearchHit {
+    // Lower ranks first: the exact ID, the exact name, a name starting with the query, a word of it, anywhere in it.
+    static final int BY_ID = 0;
+    static final int SAME_NAME = 1;
+    static final int NAME_PREFIX = 2;
+    static final int WORD_PREFIX = 3;
+    static final int CONTAINS = 4;
+
+    static final Comparator<SearchHit> BEST_FIRST = Comparator.comparingInt(SearchHit::getRank)
+            .thenComparing(SearchHit::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(SearchHit::getSource);
+
+    private final int rank;
+    private final String source;
+    private final String name;
+    private final Report report;
+    private final Survivor survivor;
+
+    private SearchHit(int rank, String source, String name, Report report, Survivor survivor) {
+        this.rank = rank;
+        this.source = source;
+        this.name = name;
+        this.report = report;
+        this.survivor = survivor;
+    }
+
+    static SearchHit of(Report r, String query) {
+        long key = ReportId.parse(query);
+        int rank = key == r.getKey() ? BY_ID : rank(r.getReporterKey(), DisasterManager.normalizeName(query));
+        return new SearchHit(rank, ReportId.type(r.getKey()).getDisplayName() + " report", r.getReporter(), r, null);
+    }
+
+    static SearchHit of(Survivor s, String query) {
+        return new SearchHit(rank(s.getNameKey(), SurvivorRegistry.nameKey(query)), "Survivor", s.getName(), null, s);
+    }
+
+    private static int rank(String nameKey, String queryKey) {
+        if (nameKey.equals(queryKey)) return SAME_NAME;
+        if (nameKey.startsWith(queryKey)) return NAME_PREFIX;
+        if (nameKey.contains(" " + queryKey)) return WORD_PREFIX;
+        return CONTAINS;
+    }
+
+    public int getRank() { return rank; }
+    /* "Flood report", "Survivor", ... */
+    public String getSource() { return source; }
+    public String getName() { return name; }
+    /* The report found, or null for a survivor. */
+    public Report getReport() { return report; }
+    /* The survivor found, or null for a report. */
+    public Survivor getSurvivor() { return survivor; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(96).append('[').append(source);
+        if (report != null) {
+            sb.append(' ').append(report.getId()).append("] ").append(name)
+                    .append(" | ").append(report.getLocation())
+                    .append(" | ").append(report.getInjuryType())
+                    .append(" | ").append(report.getStatus().getLabel());
+        } else {
+            sb.append("] ").append(name)
+                    .append(" | ").append(survivor.getLocation())
+                    .append(" | ").append(survivor.getHealthStatus());
+        }
+        return sb.toString();
+    }
+}
+
+/* ---------------------------
+   Person finder
+   One search over every disaster manager and the survivor registry.
+   Each store is searched as its own fork/join task, so the stores are
+   searched in parallel and the search takes about as long as the
+   slowest one. Every store answers from its name indexes and returns
+   at most the limit, so that time does not grow with the store.
+
+   A store that fails or has not answered within -Drsr.searchTimeoutMs
+   (default 2000) is left out, and named in the result, rather than
+   holding up the rest.
+   --------------------------- */
+final class PersonFinder {
+    static final int DEFAULT_LIMIT = 50;
+
+    private static final long TIMEOUT_MILLIS = Long.getLong("rsr.searchTimeoutMs", 2000);
+
+    private final ReportDesk desk;
+    private final SurvivorRegistry survivors;
+    private final ForkJoinPool pool;
+
+    public PersonFinder(ReportDesk desk, SurvivorRegistry survivors) {
+        this(desk, survivors, ForkJoinPool.commonPool());
+    }
+
+    PersonFinder(ReportDesk desk, SurvivorRegistry survivors, ForkJoinPool pool) {
+        this.desk = desk;
+        this.survivors = survivors;
+        this.pool = pool;
+    }
+
+    /* The merged hits of one search, best first, and the stores that failed or did not answer in time. */
+    static final class Results {
+        private final List<SearchHit> hits;
+        private final List<String> missing;
+
+        Results(List<SearchHit> hits, List<String> missing) {
+            this.hits = hits;
+            this.missing = missing;
+        }
+
+        public List<SearchHit> getHits() { return hits; }
+        public List<String> getMissing() { return missing; }
+        public boolean isComplete() { return missing.isEmpty(); }
+    }
+
+    /* Everyone the query (a report ID or a whole or partial name) matches, up to limit per store. */
+    public Results search(String query, int limit) {
+        if (query == null || query.isBlank()) return new Results(List.of(), List.of());
+        String q = query.trim();
+        List<String> names = new ArrayList<>();
+        List<ForkJoinTask<List<SearchHit>>> tasks = new ArrayList<>();
+        for (DisasterManager m : desk.managers()) {
+            names.add(m.getType().getDisplayName() + " reports");
+            tasks.add(pool.submit(ForkJoinTask.adapt(() -> {
+                List<SearchHit> hits = new ArrayList<>();
+                for (Report r : m.findAll(q, limit)) hits.add(SearchHit.of(r, q));
+                return hits;
+            })));
+        }
+        names.add("survivors");
+        tasks.add(pool.submit(ForkJoinTask.adapt(() -> {
+            List<SearchHit> hits = new ArrayList<>();
+            for (Survivor s : survivors.search(q, limit)) hits.add(SearchHit.of(s, q));
+            return hits;
+        })));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        List<SearchHit> merged = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                merged.addAll(tasks.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                tasks.get(i).cancel(true);
+                missing.add(names.get(i));
+            } catch (ExecutionException e) {
+                missing.add(names.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                missing.add(names.get(i));
+            }
+        }
+        merged.sort(SearchHit.BEST_FIRST);
+        return new Results(merged, missing);
+    }
+}
@@ -0,0 +1,554 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/* ---------------------------
+   Person match
+   A report and a registered survivor that may be the same person: the
+   reporter's name and the survivor's are alike and both were recorded
+   in the same town.
+   --------------------------- */
+final class PersonMatch {
+    static final Comparator<PersonMatch> STRONGEST_FIRST = Comparator.comparingDouble(PersonMatch::getScore).reversed()
+            .thenComparingLong(m -> m.getReport().getSequence())
+            .thenComparingLong(m -> m.getSurvivor().getId());
+
+    private final Report report;
+    private final Survivor survivor;
+    private final double score;
+
+    PersonMatch(Report report, Survivor survivor, double score) {
+        this.report = report;
+        this.survivor = survivor;
+        this.score = score;
+    }
+
+    public Report getReport() { return report; }
+    public Survivor getSurvivor() { return survivor; }
+    /* How alike the names are, from the threshold up to 1.0 for the same name. */
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (%s) ~ survivor %s (%s, %s)  %.0f%%", report.getId(), report.getReporter(),
+                report.getLocation(), survivor.getName(), survivor.getLocation(), survivor.getHealthStatus(), score * 100);
+    }
+}
+
+/* ---------------------------
+   Person matcher
+   Links reports to registered survivors who may be the same person, so
+   an operator can tell a family that someone reported hurt has since
+   turned up at an evacuation center.
+
+   Comparing every report with every survivor is out of the question at
+   millions of records, so records are first put in blocks: one per town
+   and first three letters of each word of the name ("lipa city|cru").
+   Particles and numbers ("dela", "san", "2") make no blocks of their
+   own: nearly every other name would land in them.
+   Only a report and a survivor that share a block are compared, and a
+   pair sharing several blocks is compared in the first of them only.
+   The names (lower case, punctuation removed) are scored with
+   Jaro-Winkler, also with their words sorted, so "Cruz, Ana" and
+   "Ana Cruz" agree; pairs scoring at least -Drsr.matchThreshold
+   (default 0.90) are linked. Each person keeps their best five links.
+   Before scoring, a pair's letter counts bound the best score it could
+   reach, and pairs that cannot reach the threshold are passed over.
+
+   The matcher follows the event ring: each report or survivor filed is
+   compared with its blocks as it arrives, and a deletion drops its
+   links on both sides; anyone who loses one of a full five links is
+   matched with their blocks again to take in the next best. rematch() matches everyone again from scratch, in parallel:
+   the blocks are split into units of work for the common fork/join
+   pool. Events that arrive meanwhile are applied to the old links and
+   kept, then replayed onto the new ones before they replace the old.
+   --------------------------- */
+final class PersonMatcher implements EventRing.Subscriber {
+    static final double DEFAULT_THRESHOLD = 0.90;
+
+    private static final int KEEP = 5;
+    private static final int REPORTS_PER_UNIT = 256;
+    private static final int PREFIX = 3;
+
+    private final ReportDesk desk;
+    private final SurvivorRegistry survivors;
+    private final double threshold;
+    private volatile State state = new State();
+    // The last full match, and the changes applied since; guarded by this.
+    private Summary lastMatch;
+    private long changesSince;
+    // Changes seen while a rematch runs; null otherwise. Guarded by this.
+    private List<Change> pending;
+    // One rematch at a time.
+    private final Object rebuilding = new Object();
+
+    public PersonMatcher(ReportDesk desk, SurvivorRegistry survivors) {
+        this(desk, survivors, configuredThreshold());
+    }
+
+    PersonMatcher(ReportDesk desk, SurvivorRegistry survivors, double threshold) {
+        this.desk = desk;
+        this.survivors = survivors;
+        this.threshold = threshold;
+    }
+
+    static double configuredThreshold() {
+        try {
+            double t = Double.parseDouble(System.getProperty("rsr.matchThreshold", String.valueOf(DEFAULT_THRESHOLD)));
+            return t > 0 && t <= 1 ? t : DEFAULT_THRESHOLD;
+        } catch (NumberFormatException e) {
+            return DEFAULT_THRESHOLD;
+        }
+    }
+
+    /* Follows the ring from now on, and matches every report and survivor already recorded. */
+    public void attachEvents(EventRing events) {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            events.subscribe("matcher", this);
+            rebuild();
+        }
+    }
+
+    /* ---- Reads ---- */
+
+    /* Survivors who may be the person in this report, best first. */
+    public List<PersonMatch> forReport(Report r) {
+        return state.byReport.getOrDefault(r.getKey(), List.of());
+    }
+
+    /* Reports that may be about this survivor, best first. */
+    public List<PersonMatch> forSurvivor(Survivor s) {
+        return state.bySurvivor.getOrDefault(s.getId(), List.of());
+    }
+
+    /* The strongest links overall, up to limit. */
+    public List<PersonMatch> strongest(int limit) {
+        List<PersonMatch> all = new ArrayList<>();
+        for (List<PersonMatch> links : state.byReport.values()) all.addAll(links);
+        all.sort(PersonMatch.STRONGEST_FIRST);
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    /* ---- Full rematch ---- */
+
+    /* What a rematch looked at and found. */
+    static final class Summary {
+        final long reports, survivors, blocks, comparisons, links, millis;
+
+        Summary(long reports, long survivors, long blocks, long comparisons, long links, long millis) {
+            this.reports = reports;
+            this.survivors = survivors;
+            this.blocks = blocks;
+            this.comparisons = comparisons;
+            this.links = links;
+            this.millis = millis;
+        }
+
+        @Override
+        public String toString() {
+            return reports + " reports and " + survivors + " survivors in " + blocks + " blocks: " + comparisons
+                    + " pairs compared, " + links + " linked, in " + millis + " ms";
+        }
+    }
+
+    /* Matches everyone again from scratch and replaces the links when done. Nothing changed since the
+       last full match means the same links again, so that match's summary is returned without redoing it. */
+    public Summary rematch() {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                if (lastMatch != null && changesSince == 0) return lastMatch;
+                pending = new ArrayList<>();
+            }
+            return rebuild();
+        }
+    }
+
+    private Summary rebuild() {
+        long start = System.nanoTime();
+        List<Report> reports = new ArrayList<>();
+        for (DisasterManager m : desk.managers()) reports.addAll(m.getAllReports());
+        List<Survivor> registered = survivors.all();
+
+        State next = new State();
+        reports.parallelStream().forEach(r -> next.place(Entry.of(r)));
+        registered.parallelStream().forEach(s -> next.place(Entry.of(s)));
+
+        List<Unit> units = new ArrayList<>();
+        for (Map.Entry<String, Block> e : next.blocks.entrySet()) {
+            Block b = e.getValue();
+            if (b.survivors.isEmpty()) continue;
+            for (int i = 0; i < b.reports.size(); i += REPORTS_PER_UNIT) {
+                units.add(new Unit(e.getKey(), b, i, Math.min(b.reports.size(), i + REPORTS_PER_UNIT)));
+            }
+        }
+        LongAdder comparisons = new LongAdder();
+        units.parallelStream().forEach(u -> {
+            long compared = 0;
+            for (int i = u.from; i < u.to; i++) {
+                Entry r = u.block.reports.get(i);
+                for (Entry s : u.block.survivors) {
+                    if (!firstSharedKey(r.keys, s.keys).equals(u.key)) continue;
+                    compared++;
+                    next.linkIfAlike(r, s, threshold);
+                }
+            }
+            comparisons.add(compared);
+        });
+
+        long links = 0;
+        for (List<PersonMatch> l : next.byReport.values()) links += l.size();
+        Summary done = new Summary(reports.size(), registered.size(), next.blocks.size(), comparisons.sum(), links,
+                (System.nanoTime() - start) / 1_000_000);
+        synchronized (this) {
+            for (Change c : pending) apply(next, c);
+            lastMatch = done;
+            changesSince = pending.size();
+            pending = null;
+            state = next;
+        }
+        return done;
+    }
+
+    private static final class Unit {
+        final String key;
+        final Block block;
+        final int from, to;
+
+        Unit(String key, Block block, int from, int to) {
+            this.key = key;
+            this.block = block;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /* ---- Incremental matching ---- */
+
+    private static final class Change {
+        final ChangeKind kind;
+        final Report report;
+        final Survivor survivor;
+
+        Change(ChangeKind kind, Report report, Survivor survivor) {
+            this.kind = kind;
+            this.report = report;
+            this.survivor = survivor;
+        }
+    }
+
+    @Override
+    public synchronized void onEvent(ChangeEvent e, long sequence, boolean endOfBatch) {
+        if (e.getKind() == ChangeKind.REPORT_STATUS) return;
+        Change c = new Change(e.getKind(), e.getReport(), e.getSurvivor());
+        apply(state, c);
+        changesSince++;
+        if (pending != null) pending.add(c);
+    }
+
+    private void apply(State s, Change c) {
+        switch (c.kind) {
+            case REPORT_INSERTED -> s.addReport(c.report, threshold);
+            case REPORT_DELETED -> s.removeReport(c.report, threshold);
+            case SURVIVOR_ADDED -> s.addSurvivor(c.survivor, threshold);
+            case SURVIVOR_DELETED -> s.removeSurvivor(c.survivor, threshold);
+            default -> { }
+        }
+    }
+
+    /* ---- Blocks and links ---- */
+
+    // A report or survivor as the matcher sees it: normalized name, the name with its words sorted, block keys.
+    private static final class Entry {
+        final Report report;
+        final Survivor survivor;
+        final String name;
+        final String sortedName;
+        final String[] keys;
+        // How many times each kind of letter occurs in the name.
+        final short[] letters = new short[LETTER_KINDS];
+
+        private Entry(Report report, Survivor survivor, String name, String place) {
+            this.report = report;
+            this.survivor = survivor;
+            this.name = Gazetteer.normalize(name == null ? "" : name);
+            for (int i = 0; i < this.name.length(); i++) letters[letterKind(this.name.charAt(i))]++;
+            String[] words = this.name.isEmpty() ? new String[0] : this.name.split(" ");
+            String[] sorted = words.clone();
+            Arrays.sort(sorted);
+            this.sortedName = String.join(" ", sorted);
+            TreeSet<String> keys = new TreeSet<>();
+            for (String w : words) {
+                if (!isFiller(w)) keys.add(place + '|' + (w.length() > PREFIX ? w.substring(0, PREFIX) : w));
+            }
+            // A name of nothing but fillers still gets its blocks.
+            if (keys.isEmpty()) {
+                for (String w : words) keys.add(place + '|' + (w.length() > PREFIX ? w.substring(0, PREFIX) : w));
+            }
+            this.keys = keys.toArray(new String[0]);
+        }
+
+        static Entry of(Report r) {
+            return new Entry(r, null, r.getReporter(), r.getLocationKey());
+        }
+
+        static Entry of(Survivor s) {
+            return new Entry(null, s, s.getName(), s.getLocationKey());
+        }
+    }
+
+    // Words shared by too many names to tell anyone apart: particles ("dela", "san") and numbers.
+    private static boolean isFiller(String w) {
+        if (FILLERS.contains(w)) return true;
+        for (int i = 0; i < w.length(); i++) {
+            if (!Character.isDigit(w.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static final Set<String> FILLERS = Set.of("de", "del", "dela", "delos", "la", "las", "los", "san", "sta",
+            "sto", "santa", "santo", "y", "jr", "sr", "ii", "iii", "iv");
+
+    private static final class Block {
+        final List<Entry> reports = new ArrayList<>(2);
+        final List<Entry> survivors = new ArrayList<>(2);
+    }
+
+    private static final class State {
+        final Map<String, Block> blocks = new ConcurrentHashMap<>();
+        final Map<Long, Entry> reportEntries = new ConcurrentHashMap<>();
+        final Map<Long, Entry> survivorEntries = new ConcurrentHashMap<>();
+        final Map<Long, List<PersonMatch>> byReport = new ConcurrentHashMap<>();
+        final Map<Long, List<PersonMatch>> bySurvivor = new ConcurrentHashMap<>();
+
+        // Used by the parallel rebuild; blocks are locked one at a time.
+        void place(Entry e) {
+            if (e.report != null) reportEntries.put(e.report.getKey(), e);
+            else survivorEntries.put(e.survivor.getId(), e);
+            for (String k : e.keys) {
+                Block b = blocks.computeIfAbsent(k, x -> new Block());
+                synchronized (b) {
+                    (e.report != null ? b.reports : b.survivors).add(e);
+                }
+            }
+        }
+
+        void addReport(Report r, double threshold) {
+            if (reportEntries.containsKey(r.getKey())) return;
+            Entry e = Entry.of(r);
+            place(e);
+            for (String k : e.keys) {
+                for (Entry s : blocks.get(k).survivors) {
+                    if (firstSharedKey(e.keys, s.keys).equals(k)) linkIfAlike(e, s, threshold);
+                }
+            }
+        }
+
+        void addSurvivor(Survivor sv, double threshold) {
+            if (survivorEntries.containsKey(sv.getId())) return;
+            Entry e = Entry.of(sv);
+            place(e);
+            for (String k : e.keys) {
+                for (Entry r : blocks.get(k).reports) {
+                    if (firstSharedKey(r.keys, e.keys).equals(k)) linkIfAlike(r, e, threshold);
+                }
+            }
+        }
+
+        /* Drops the report's links on both sides. A survivor can hold the report among their five while the
+           report's own five leave the survivor out, so every survivor it was compared with is looked at; one
+           who loses a link out of a full five is matched again, which brings in the next best. */
+        void removeReport(Report r, double threshold) {
+            Entry e = reportEntries.remove(r.getKey());
+            if (e == null) return;
+            for (String k : e.keys) {
+                Block b = blocks.get(k);
+                if (b != null) b.reports.remove(e);
+            }
+            byReport.remove(r.getKey());
+            for (String k : e.keys) {
+                Block b = blocks.get(k);
+                if (b == null) continue;
+                for (Entry s : b.survivors) {
+                    if (!firstSharedKey(e.keys, s.keys).equals(k)) continue;
+                    List<PersonMatch> links = bySurvivor.get(s.survivor.getId());
+                    Predicate<PersonMatch> toReport = m -> m.getReport().getKey() == r.getKey();
+                    if (links == null || links.stream().noneMatch(toReport)) continue;
+                    if (links.size() == KEEP) relinkSurvivor(s, threshold);
+                    else bySurvivor.computeIfPresent(s.survivor.getId(), (id, l) -> without(l, toReport));
+                }
+            }
+        }
+
+        /* As removeReport, the other way round. */
+        void removeSurvivor(Survivor sv, double threshold) {
+            Entry e = survivorEntries.remove(sv.getId());
+            if (e == null) return;
+            for (String k : e.keys) {
+                Block b = blocks.get(k);
+                if (b != null) b.survivors.remove(e);
+            }
+            bySurvivor.remove(sv.getId());
+            for (String k : e.keys) {
+                Block b = blocks.get(k);
+                if (b == null) continue;
+                for (Entry r : b.reports) {
+                    if (!firstSharedKey(r.keys, e.keys).equals(k)) continue;
+                    List<PersonMatch> links = byReport.get(r.report.getKey());
+                    Predicate<PersonMatch> toSurvivor = m -> m.getSurvivor().getId() == sv.getId();
+                    if (links == null || links.stream().noneMatch(toSurvivor)) continue;
+                    if (links.size() == KEEP) relinkReport(r, threshold);
+                    else byReport.computeIfPresent(r.report.getKey(), (key, l) -> without(l, toSurvivor));
+                }
+            }
+        }
+
+        // The report's five best links, from every survivor it shares a block with.
+        private void relinkReport(Entry r, double threshold) {
+            List<PersonMatch> found = new ArrayList<>();
+            for (String k : r.keys) {
+                for (Entry s : blocks.get(k).survivors) {
+                    if (!firstSharedKey(r.keys, s.keys).equals(k)) continue;
+                    PersonMatch m = match(r, s, threshold);
+                    if (m != null) found.add(m);
+                }
+            }
+            found.sort(PersonMatch.STRONGEST_FIRST);
+            if (found.isEmpty()) byReport.remove(r.report.getKey());
+            else byReport.put(r.report.getKey(), List.copyOf(found.size() > KEEP ? found.subList(0, KEEP) : found));
+        }
+
+        // The survivor's five best links, from every report they share a block with.
+        private void relinkSurvivor(Entry s, double threshold) {
+            List<PersonMatch> found = new ArrayList<>();
+            for (String k : s.keys) {
+                for (Entry r : blocks.get(k).reports) {
+                    if (!firstSharedKey(r.keys, s.keys).equals(k)) continue;
+                    PersonMatch m = match(r, s, threshold);
+                    if (m != null) found.add(m);
+                }
+            }
+            found.sort(PersonMatch.STRONGEST_FIRST);
+            if (found.isEmpty()) bySurvivor.remove(s.survivor.getId());
+            else bySurvivor.put(s.survivor.getId(), List.copyOf(found.size() > KEEP ? found.subList(0, KEEP) : found));
+        }
+
+        void linkIfAlike(Entry r, Entry s, double threshold) {
+            PersonMatch m = match(r, s, threshold);
+            if (m == null) return;
+            byReport.merge(r.report.getKey(), List.of(m), State::best);
+            bySurvivor.merge(s.survivor.getId(), List.of(m), State::best);
+        }
+
+        // The pair's link if their names score at least the threshold; null otherwise.
+        private static PersonMatch match(Entry r, Entry s, double threshold) {
+            double jaro = bestJaro(r, s);
+            if (withPrefix(jaro, 4) < threshold) return null;
+            double score = 0;
+            // Each order of the words is scored only if its shared start could lift it to the threshold.
+            if (withPrefix(jaro, sharedPrefix(r.name, s.name)) >= threshold) score = jaroWinkler(r.name, s.name);
+            if (withPrefix(jaro, sharedPrefix(r.sortedName, s.sortedName)) >= threshold) {
+                score = Math.max(score, jaroWinkler(r.sortedName, s.sortedName));
+            }
+            return score < threshold ? null : new PersonMatch(r.report, s.survivor, score);
+        }
+
+        // The strongest KEEP of both lists, as an immutable list.
+        private static List<PersonMatch> best(List<PersonMatch> a, List<PersonMatch> b) {
+            // The usual case once a person has their five: the new link is weaker than all of them.
+            if (a.size() == KEEP && b.size() == 1 && PersonMatch.STRONGEST_FIRST.compare(b.get(0), a.get(KEEP - 1)) > 0) {
+                return a;
+            }
+            List<PersonMatch> all = new ArrayList<>(a.size() + b.size());
+            all.addAll(a);
+            all.addAll(b);
+            all.sort(PersonMatch.STRONGEST_FIRST);
+            return List.copyOf(all.size() > KEEP ? all.subList(0, KEEP) : all);
+        }
+
+        private static List<PersonMatch> without(List<PersonMatch> links, Predicate<PersonMatch> gone) {
+            List<PersonMatch> rest = new ArrayList<>(links);
+            rest.removeIf(gone);
+            return rest.isEmpty() ? null : List.copyOf(rest);
+        }
+    }
+
+    // Both arrays are sorted; the smallest key in both decides which block compares the pair.
+    private static String firstSharedKey(String[] a, String[] b) {
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            int c = a[i].compareTo(b[j]);
+            if (c == 0) return a[i];
+            if (c < 0) i++;
+            else j++;
+        }
+        return "";
+    }
+
+    // The highest Jaro score two names could reach given how many letters they have in common, whatever their
+    // order: cheap next to the score itself, and most pairs in a block fall short of the threshold here.
+    private static double bestJaro(Entry a, Entry b) {
+        int la = a.name.length(), lb = b.name.length();
+        if (la == 0 || lb == 0) return 0;
+        int common = 0;
+        for (int i = 0; i < LETTER_KINDS; i++) common += Math.min(a.letters[i], b.letters[i]);
+        double m = common;
+        return (m / la + m / lb + 1) / 3;
+    }
+
+    private static double withPrefix(double jaro, int prefix) {
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int prefix = 0;
+        while (prefix < 4 && prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) prefix++;
+        return prefix;
+    }
+
+    // a-z, 0-9, space, and one kind for everything else.
+    private static final int LETTER_KINDS = 38;
+
+    private static int letterKind(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + c - '0';
+        return c == ' ' ? 36 : 37;
+    }
+
+    /* Jaro-Winkler similarity: 1.0 for equal strings, 0.0 for nothing in common; a shared start of up to
+       four letters counts extra. */
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) return a.isEmpty() ? 0 : 1;
+        int la = a.length(), lb = b.length();
+        if (la == 0 || lb == 0) return 0;
+        int window = Math.max(0, Math.max(la, lb) / 2 - 1);
+        boolean[] matchedA = new boolean[la];
+        boolean[] matchedB = new boolean[lb];
+        int matches = 0;
+        for (int i = 0; i < la; i++) {
+            int from = Math.max(0, i - window), to = Math.min(lb - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) return 0;
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < la; i++) {
+            if (!matchedA[i]) continue;
+            while (!matchedB[j]) j++;
+            if (a.charAt(i) != b.charAt(j)) transpositions++;
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / la + m / lb + (m - transpositions / 2.0) / m) / 3;
+        return withPrefix(jaro, sharedPrefix(a, b));
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.*;
+
+/* ---------------------------
+   Place name trie
+   Resolves what an operator typed ("san", "Tanuan", "batanags city")
+   to the places it most likely means, ranked:
+     1. the exact name
+     2. names starting with the text
+     3. names with a word starting with the text ("tomas" -> "Sto. Tomas")
+     4. names within one or two typing mistakes of the text, or of the
+        start of a name, fewest mistakes first
+   Within a rank, heavier places (more hospitals) come first, then the
+   order the names were added in.
+
+   Names are normalized like the gazetteer does (lower case, single
+   spaces, no punctuation). Every node keeps the best few places below
+   it, so a prefix lookup is a walk down the trie. Typing mistakes are
+   found by walking the trie with one row of the edit-distance table
+   per level, abandoning branches that are already too far off.
+
+   The trie is built once and then only read. The scratch space for a
+   lookup is kept per thread, so resolve() does not allocate.
+   --------------------------- */
+final class PlaceTrie<V> {
+    private static final int TOP = 8;
+    private static final int FULL = 1;
+    private static final int WORD = 2;
+    private static final int FUZZY = 3;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+    private final List<Integer> weights = new ArrayList<>();
+    private final Node root = new Node();
+    private int maxKeyLength;
+    private volatile boolean frozen;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(this::newScratch);
+
+    /* Adds a place under one or more names. Must not be called after the first lookup. */
+    public void add(V value, int weight, String... placeNames) {
+        if (frozen) throw new IllegalStateException("PlaceTrie is read-only once searched");
+        int id = values.size();
+        values.add(value);
+        weights.add(weight);
+        names.add(placeNames[0]);
+        for (String name : placeNames) {
+            String key = Gazetteer.normalize(name);
+            if (key.isEmpty()) continue;
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+            insert(key, id, FULL);
+            for (int i = 1; i < key.length(); i++) {
+                if (key.charAt(i - 1) == ' ') insert(key.substring(i), id, WORD);
+            }
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public V value(int id) { return values.get(id); }
+    public String name(int id) { return names.get(id); }
+
+    /* The id of the best match, or -1 if nothing is close enough. Does not allocate. */
+    public int resolve(CharSequence text) {
+        Scratch s = search(text);
+        int best = -1;
+        long bestScore = Long.MAX_VALUE;
+        for (int i = 0; i < s.touchedCount; i++) {
+            int id = s.touched[i];
+            if (s.score[id] < bestScore) {
+                bestScore = s.score[id];
+                best = id;
+            }
+        }
+        s.clear();
+        return best;
+    }
+
+    /* The id of the place with exactly this name, or -1. Does not allocate. */
+    public int exact(CharSequence text) {
+        if (!frozen) freeze();
+        Scratch s = scratch.get();
+        int m = normalize(text, s.query);
+        Node node = m == 0 ? null : root;
+        for (int i = 0; i < m && node != null; i++) node = node.child(s.query[i]);
+        return node == null ? -1 : node.fullId;
+    }
+
+    /* Up to limit matches, best first. */
+    public List<Integer> candidates(CharSequence text, int limit) {
+        Scratch s = search(text);
+        Integer[] found = new Integer[s.touchedCount];
+        for (int i = 0; i < found.length; i++) found[i] = s.touched[i];
+        long[] score = s.score;
+        Arrays.sort(found, Comparator.comparingLong(id -> score[id]));
+        s.clear();
+        List<Integer> out = new ArrayList<>(Math.min(limit, found.length));
+        for (int i = 0; i < found.length && i < limit; i++) out.add(found[i]);
+        return out;
+    }
+
+    /* ---- Search ---- */
+
+    private Scratch search(CharSequence text) {
+        if (!frozen) freeze();
+        Scratch s = scratch.get();
+        int m = normalize(text, s.query);
+        if (m == 0) return s;
+        Node node = root;
+        for (int i = 0; i < m && node != null; i++) node = node.child(s.query[i]);
+        if (node != null) {
+            if (node.fullId >= 0) s.offer(node.fullId, score(0, 0, 0, node.fullId));
+            for (int i = 0; i < node.topCount; i++) {
+                s.offer(node.topIds[i], score(node.topKinds[i], 0, 0, node.topIds[i]));
+            }
+        }
+        if (s.touchedCount == 0 && m >= 3) {
+            int maxDistance = m <= 5 ? 1 : 2;
+            int[] first = s.rows[0];
+            for (int j = 0; j <= m; j++) first[j] = j;
+            fuzzy(root, 1, m, maxDistance, s);
+        }
+        return s;
+    }
+
+    // Damerau (adjacent swap) edit distance between the query and every prefix along the path to each node.
+    private void fuzzy(Node node, int depth, int m, int maxDistance, Scratch s) {
+        for (int c = 0; c < node.childCount; c++) {
+            char ch = node.keys[c];
+            Node child = node.kids[c];
+            s.path[depth] = ch;
+            int[] prev = s.rows[depth - 1];
+            int[] row = s.rows[depth];
+            row[0] = depth;
+            int rowMin = depth;
+            for (int j = 1; j <= m; j++) {
+                int cost = s.query[j - 1] == ch ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+                if (depth > 1 && j > 1 && s.query[j - 1] == s.path[depth - 1] && s.query[j - 2] == ch) {
+                    d = Math.min(d, s.rows[depth - 2][j - 2] + 1);
+                }
+                row[j] = d;
+                if (d < rowMin) rowMin = d;
+            }
+            int distance = row[m];
+            if (distance <= maxDistance) {
+                for (int i = 0; i < child.topCount; i++) {
+                    int id = child.topIds[i];
+                    s.offer(id, score(FUZZY, distance, child.topKinds[i] - 1, id));
+                }
+            }
+            if (rowMin <= maxDistance && depth < maxKeyLength) fuzzy(child, depth + 1, m, maxDistance, s);
+        }
+    }
+
+    // Lower is better: rank, then mistakes, then full name over word, then weight, then insertion order.
+    private long score(int rank, int distance, int wordMatch, int id) {
+        long lightness = 0xFFFF - Math.min(weights.get(id), 0xFFFF);
+        return (long) rank << 60 | (long) distance << 56 | (long) wordMatch << 52 | lightness << 32 | id;
+    }
+
+    private static int normalize(CharSequence text, char[] out) {
+        if (text == null) return 0;
+        int n = 0;
+        boolean space = true;
+        for (int i = 0; i < text.length() && n < out.length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out[n++] = Character.toLowerCase(c);
+                space = false;
+            } else if (!space) {
+                out[n++] = ' ';
+                space = true;
+            }
+        }
+        if (n > 0 && out[n - 1] == ' ') n--;
+        return n;
+    }
+
+    /* ---- Build ---- */
+
+    private void insert(String key, int id, int kind) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) node = node.childOrAdd(key.charAt(i));
+        if (kind == FULL && node.fullId < 0) node.fullId = id;
+        node.addTerminal(id, kind);
+    }
+
+    private synchronized void freeze() {
+        if (frozen) return;
+        collectTop(root);
+        frozen = true;
+    }
+
+    // Fills each node's best places below it, as (id, FULL or WORD) sorted by score.
+    private Map<Integer, Integer> collectTop(Node node) {
+        Map<Integer, Integer> below = new HashMap<>();
+        for (int i = 0; i < node.terminalCount; i++) below.merge(node.terminalIds[i], node.terminalKinds[i], Math::min);
+        for (int c = 0; c < node.childCount; c++) {
+            collectTop(node.kids[c]).forEach((id, kind) -> below.merge(id, kind, Math::min));
+        }
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(below.entrySet());
+        ranked.sort(Comparator.comparingLong(e -> score(e.getValue(), 0, 0, e.getKey())));
+        node.topCount = Math.min(TOP, ranked.size());
+        node.topIds = new int[node.topCount];
+        node.topKinds = new int[node.topCount];
+        for (int i = 0; i < node.topCount; i++) {
+            node.topIds[i] = ranked.get(i).getKey();
+            node.topKinds[i] = ranked.get(i).getValue();
+        }
+        return below;
+    }
+
+    private Scratch newScratch() {
+        if (!frozen) freeze();
+        return new Scratch(values.size(), maxKeyLength);
+    }
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] kids = new Node[0];
+        int childCount;
+        int fullId = -1;
+        int[] terminalIds = new int[0];
+        int[] terminalKinds = new int[0];
+        int terminalCount;
+        int[] topIds;
+        int[] topKinds;
+        int topCount;
+
+        Node child(char c) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == c) return kids[i];
+            }
+            return null;
+        }
+
+        Node childOrAdd(char c) {
+            Node found = child(c);
+            if (found != null) return found;
+            keys = Arrays.copyOf(keys, childCount + 1);
+            kids = Arrays.copyOf(kids, childCount + 1);
+            keys[childCount] = c;
+            Node created = new Node();
+            kids[childCount++] = created;
+            return created;
+        }
+
+        void addTerminal(int id, int kind) {
+            terminalIds = Arrays.copyOf(terminalIds, terminalCount + 1);
+            terminalKinds = Arrays.copyOf(terminalKinds, terminalCount + 1);
+            terminalIds[terminalCount] = id;
+            terminalKinds[terminalCount++] = kind;
+        }
+    }
+
+    // Per-thread lookup state: the normalized query, the edit-distance rows, and each place's best score so far.
+    private static final class Scratch {
+        final char[] query;
+        final char[] path;
+        final int[][] rows;
+        final long[] score;
+        final int[] touched;
+        int touchedCount;
+
+        Scratch(int places, int maxKeyLength) {
+            query = new char[Math.max(64, maxKeyLength * 2)];
+            path = new char[maxKeyLength + 1];
+            rows = new int[maxKeyLength + 1][query.length + 1];
+            score = new long[places];
+            Arrays.fill(score, Long.MAX_VALUE);
+            touched = new int[places];
+        }
+
+        void offer(int id, long s) {
+            if (score[id] == Long.MAX_VALUE) touched[touchedCount++] = id;
+            if (s < score[id]) score[id] = s;
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) score[touched[i]] = Long.MAX_VALUE;
+            touchedCount = 0;
+        }
+    }
+}
@@ -1,95 +1,329 @@
-import java.util.Scanner;
-
-public class ReadySetRecover {
-    private static final Scanner scanner = new Scanner(System.in);
-
-    public static void main(String[] args) {
-        displayWelcome();
-        runMainMenu();
-        System.out.println("\n=====================================================");
-        System.out.println("       THANK YOU FOR USING READY. SET. RECOVER!");
-        System.out.println("            Stay safe and resilient!");
-        System.out.println("=====================================================");
-    }
-
-    private static void displayWelcome() {
-        System.out.println("=====================================================");
-        System.out.println("             READY. SET. RECOVER!  ");
-        System.out.println("=====================================================");
-        System.out.println();
-        System.out.println("   A Comprehensive Disaster Preparedness and");
-        System.out.println("       Response Management System");
-        System.out.println();
-        System.out.println("This system helps you prepare for, respond to,");
-        System.out.println("and recover from natural disasters including:");
-        System.out.println("   Earthquakes , Typhoons , Floods , Fires");
-        System.out.println();
-        System.out.println("=====================================================");
-        System.out.println();
-    }
-
-    private static void runMainMenu() {
-        while (true) {
-            System.out.println("\n╔════════════════════════════════════════════════╗");
-            System.out.println("║           DISASTER RESPONSE PHASES             ║");
-            System.out.println("╚════════════════════════════════════════════════╝");
-            System.out.println();
-            System.out.println("Where are you in the disaster timeline?");
-            System.out.println();
-            System.out.println("[1] BEFORE - Preparation & Planning");
-            System.out.println("    Learn what to do before a disaster strikes");
-            System.out.println("    Prepare emergency kits and evacuation plans");
-            System.out.println();
-            System.out.println("[2] DURING - Emergency Response");
-            System.out.println("    Report incidents and injuries in real-time");
-            System.out.println("    Get safety suggestions and find nearby hospitals");
-            System.out.println();
-            System.out.println("[3] AFTER - Recovery & Relief");
-            System.out.println("    Record and manage survivor information");
-            System.out.println("    Access post-disaster recovery guidelines");
-            System.out.println();
-            System.out.println("[0] Exit System");
-            System.out.println();
-            System.out.println("─────────────────────────────────────────────────");
-            System.out.print("Enter your choice (0-3): ");
-
-            String choice = scanner.nextLine().trim();
-
-            switch (choice) {
-                case "1" -> {
-                    System.out.println("\nRedirecting to BEFORE DISASTER module...\n");
-                    runBeforeDisaster();
-                }
-                case "2" -> {
-                    System.out.println("\nRedirecting to DURING DISASTER module...\n");
-                    runDuringDisaster();
-                }
-                case "3" -> {
-                    System.out.println("\nRedirecting to AFTER DISASTER module...\n");
-                    runAfterDisaster();
-                }
-                case "0" -> {
-                    return;
-                }
-                default -> System.out.println("\n Invalid choice. Please enter a number between 0 and 3.");
-            }
-        }
-    }
-
-    private static void runBeforeDisaster() {
-        BeforeDisaster beforeModule = new BeforeDisaster();
-        beforeModule.run();
-    }
-
-    private static void runDuringDisaster() {
-        DuringDisaster duringModule = new DuringDisaster();
-        duringModule.runMainMenu();
-        System.out.println("\nPress Enter to continue...");
-        scanner.nextLine();
-    }
-
-    private static void runAfterDisaster() {
-        AfterDisaster afterModule = new AfterDisaster();
-        afterModule.run();
-    }
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReadySetRecover {
+    private final Session session;
+    private final LineReader input;
+    private final PrintStream out;
+    private final AppContext context;
+    // Built on the first visit and kept for the rest of the session.
+    private BeforeDisaster beforeModule;
+    private DuringDisaster duringModule;
+    private AfterDisaster afterModule;
+    private PersonFinder finder;
+
+    public ReadySetRecover(Session session, AppContext context) {
+        this.session = session;
+        this.input = session.in();
+        this.out = session.out();
+        this.context = context;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--import")) {
+            importFiles(args);
+            return;
+        }
+        if (args.length > 0 && (args[0].equals("--compile-catalog") || args[0].equals("--export-catalog"))) {
+            catalogTool(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--event-load")) {
+            eventLoad(args);
+            return;
+        }
+        if (args.length > 0 && Commands.isCommand(args[0])) {
+            System.exit(Commands.main(args));
+        }
+        if (args.length > 0 && args[0].equals("--load-test")) {
+            if (!loadTest(args)) System.exit(1);
+            return;
+        }
+        AppContext context = new AppContext();
+        ReportId.warnIfNodeUnset(context.journal(), System.out);
+        Metrics.publish();
+        context.reportReady("console");
+        new ReadySetRecover(Session.console(), context).run();
+    }
+
+    /* Server mode: every connection gets its own session, all sessions share one context. */
+    private static void serve(String[] args) {
+        int port = ConsoleServer.DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid port: " + args[1]);
+                return;
+            }
+        }
+        AppContext context = new AppContext();
+        ReportId.warnIfNodeUnset(context.journal(), System.out);
+        context.warmUp();
+        Metrics.publish();
+        try {
+            new ConsoleServer(port, session -> new ReadySetRecover(session, context).run()).serve();
+        } catch (IOException e) {
+            System.out.println("Server stopped: " + e.getMessage());
+        }
+    }
+
+    /* Batch mode: load CSV/NDJSON files into the journaled stores and exit. */
+    private static void importFiles(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java ReadySetRecover --import <file.csv|file.ndjson> ...");
+            return;
+        }
+        AppContext context = new AppContext();
+        ReportId.warnIfNodeUnset(context.journal(), System.out);
+        BulkImporter importer = new BulkImporter(context.desk(), context.survivors(), System.out);
+        for (int i = 1; i < args.length; i++) {
+            try {
+                importer.importFile(Paths.get(args[i]));
+            } catch (IOException e) {
+                System.out.println("Could not import " + args[i] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /* Measures event delivery: java ReadySetRecover --event-load [events/sec] [seconds] */
+    private static void eventLoad(String[] args) {
+        try {
+            int rate = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            SyntheticEventLoad.run(rate, seconds, System.out);
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java ReadySetRecover --event-load [events/sec] [seconds]");
+        }
+    }
+
+    /* Drives the console menus with generated operators:
+       java ReadySetRecover --load-test [operations] [ops/sec] [operators] [seed]
+       Unless -Drsr.data is given, runs against a fresh data directory, never the real journal, and removes it after. */
+    private static boolean loadTest(String[] args) {
+        LoadGenerator generator;
+        try {
+            int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+            int rate = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+            int operators = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+            generator = new LoadGenerator(operations, rate, operators, seed);
+            System.out.println("Load test: " + operations + " operations at " + rate + " ops/s by " + operators + " operators, seed " + seed);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: java ReadySetRecover --load-test [operations] [ops/sec] [operators] [seed]");
+            return false;
+        }
+        Path scratch = null;
+        try {
+            if (System.getProperty("rsr.data") == null) {
+                scratch = Files.createTempDirectory("rsr-load");
+                System.setProperty("rsr.data", scratch.toString());
+                System.out.println("Data directory: " + scratch);
+            }
+            AppContext context = new AppContext();
+            context.warmUp();
+            Metrics.publish();
+            boolean passed = generator.run(context, System.out);
+            if (Metrics.ENABLED) {
+                System.out.println("Inside the application:");
+                for (String line : Metrics.summary()) System.out.println("  " + line);
+            }
+            return passed;
+        } catch (IOException e) {
+            System.out.println("Load test could not start: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (scratch != null) deleteTree(scratch);
+        }
+    }
+
+    // Best effort: whatever cannot be deleted is reported and left behind.
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println(" Warning: could not remove " + dir + " (" + e.getMessage() + ").");
+        }
+    }
+
+    private static void catalogTool(String[] args) {
+        try {
+            if (args[0].equals("--export-catalog") && args.length == 2) {
+                GuideCatalog.exportDefaults(Paths.get(args[1]));
+                System.out.println("Built-in guide catalog written to " + args[1]);
+            } else if (args[0].equals("--compile-catalog") && args.length <= 3 && args.length >= 2) {
+                Path target = args.length == 3 ? Paths.get(args[2]) : GuideCatalog.catalogFile();
+                int entries = GuideCatalog.compileFile(Paths.get(args[1]), target);
+                System.out.println("Compiled " + entries + " entries into " + target);
+            } else {
+                System.out.println("Usage: java ReadySetRecover --export-catalog <guides.txt>");
+                System.out.println("       java ReadySetRecover --compile-catalog <guides.txt> [catalog file]");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Catalog error: " + e.getMessage());
+        }
+    }
+
+    public void run() {
+        displayWelcome();
+        runMainMenu();
+        out.println("\n=====================================================");
+        out.println("       THANK YOU FOR USING READY. SET. RECOVER!");
+        out.println("            Stay safe and resilient!");
+        out.println("=====================================================");
+        out.flush();
+    }
+
+    private void displayWelcome() {
+        out.println("=====================================================");
+        out.println("             READY. SET. RECOVER!  ");
+        out.println("=====================================================");
+        out.println();
+        out.println("   A Comprehensive Disaster Preparedness and");
+        out.println("       Response Management System");
+        out.println();
+        out.println("This system helps you prepare for, respond to,");
+        out.println("and recover from natural disasters including:");
+        out.println("   Earthquakes , Typhoons , Floods , Fires");
+        out.println();
+        out.println("=====================================================");
+        out.println();
+    }
+
+    private void runMainMenu() {
+        while (true) {
+            out.println("\n╔════════════════════════════════════════════════╗");
+            out.println("║           DISASTER RESPONSE PHASES             ║");
+            out.println("╚════════════════════════════════════════════════╝");
+            out.println();
+            out.println("Where are you in the disaster timeline?");
+            out.println();
+            out.println("[1] BEFORE - Preparation & Planning");
+            out.println("    Learn what to do before a disaster strikes");
+            out.println("    Prepare emergency kits and evacuation plans");
+            out.println();
+            out.println("[2] DURING - Emergency Response");
+            out.println("    Report incidents and injuries in real-time");
+            out.println("    Get safety suggestions and find nearby hospitals");
+            out.println();
+            out.println("[3] AFTER - Recovery & Relief");
+            out.println("    Record and manage survivor information");
+            out.println("    Access post-disaster recovery guidelines");
+            out.println();
+            out.println("[4] FIND A PERSON");
+            out.println("    Search every report and the survivor list at once");
+            out.println();
+            out.println("[5] SITUATION SUMMARY");
+            out.println("    Live counts by disaster, place, severity and status");
+            out.println();
+            out.println("[0] Exit System");
+            out.println();
+            out.println("─────────────────────────────────────────────────");
+            out.print("Enter your choice (0-5): ");
+
+            String choice = input.nextLine().trim();
+
+            switch (choice) {
+                case "1" -> {
+                    out.println("\nRedirecting to BEFORE DISASTER module...\n");
+                    runBeforeDisaster();
+                }
+                case "2" -> {
+                    out.println("\nRedirecting to DURING DISASTER module...\n");
+                    runDuringDisaster();
+                }
+                case "3" -> {
+                    out.println("\nRedirecting to AFTER DISASTER module...\n");
+                    runAfterDisaster();
+                }
+                case "4" -> findPerson();
+                case "5" -> situationSummary();
+                case "0" -> {
+                    return;
+                }
+                default -> out.println("\n Invalid choice. Please enter a number between 0 and 5.");
+            }
+        }
+    }
+
+    private void runBeforeDisaster() {
+        if (beforeModule == null) beforeModule = new BeforeDisaster(session);
+        beforeModule.run();
+    }
+
+    private void runDuringDisaster() {
+        if (duringModule == null) duringModule = new DuringDisaster(session, context);
+        duringModule.runMainMenu();
+    }
+
+    private void findPerson() {
+        if (finder == null) finder = new PersonFinder(context.desk(), context.survivors());
+        out.println("\n(4) Find a Person");
+        out.print("Enter report ID or name (whole or part): ");
+        String query = input.nextLine().trim();
+        PersonFinder.Results results = finder.search(query, PersonFinder.DEFAULT_LIMIT);
+        List<SearchHit> hits = results.getHits();
+        if (hits.isEmpty()) {
+            out.println(" No reports or survivors match: " + query);
+        } else {
+            out.println("─────────────────────────────────────────────────");
+            PersonMatcher matcher = context.matcher();
+            for (int i = 0; i < hits.size(); i++) {
+                SearchHit hit = hits.get(i);
+                out.println((i + 1) + ". " + hit);
+                List<PersonMatch> links = hit.getReport() != null ? matcher.forReport(hit.getReport()) : matcher.forSurvivor(hit.getSurvivor());
+                for (PersonMatch m : links) {
+                    if (hit.getReport() != null) {
+                        Survivor s = m.getSurvivor();
+                        out.printf("     may be registered survivor %s | %s | %s (%.0f%% alike)%n", s.getName(), s.getLocation(), s.getHealthStatus(), m.getScore() * 100);
+                    } else {
+                        Report r = m.getReport();
+                        out.printf("     may be reported in %s by %s | %s | %s (%.0f%% alike)%n", r.getId(), r.getReporter(), r.getLocation(), r.getInjuryType(), m.getScore() * 100);
+                    }
+                }
+            }
+            out.println("─────────────────────────────────────────────────");
+            out.println(hits.size() + (hits.size() == 1 ? " match" : " matches") + " across all reports and survivors.");
+        }
+        if (!results.isComplete()) {
+            out.println(" Warning: no answer from " + String.join(", ", results.getMissing()) + "; results may be incomplete.");
+        }
+    }
+
+    private void situationSummary() {
+        SituationStats stats = context.desk().stats();
+        out.println();
+        SituationSummary.render(stats, context.survivors(), out);
+        out.print("Enter a place to break down its active reports (press Enter to skip): ");
+        String place = input.nextLine().trim();
+        if (place.isEmpty()) return;
+        out.println("Active reports in " + SituationSummary.displayName(Gazetteer.placeKey(place)) + ":");
+        out.printf("%-14s", "");
+        for (Severity s : Severity.values()) out.printf("%12s", s.getLabel());
+        out.printf("%12s%n", "Injured");
+        for (DisasterType type : DisasterType.values()) {
+            out.printf("%-14s", type.getDisplayName());
+            for (Severity s : Severity.values()) out.printf("%12d", stats.count(type, place, s, null, ReportStatus.ACTIVE));
+            out.printf("%12d%n", stats.count(type, place, null, true, ReportStatus.ACTIVE));
+        }
+    }
+
+    private void runAfterDisaster() {
+        if (afterModule == null) afterModule = new AfterDisaster(session, context.survivors());
+        afterModule.run();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/* ---------------------------
+   Append-only record log
+   Records are written into fixed-size memory-mapped segment files:
+
+     [int length][int crc32c][byte type][payload ...]
+
+   A length of 0 marks the end of the written part of a segment (new
+   segments are zero-filled). A background flusher forces the active
+   segment to disk; callers that need durability wait for it, so many
+   appends made during a burst share a single force (group commit).
+   --------------------------- */
+class RecordLog implements Closeable {
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int HEADER_SIZE = 9;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    interface Replayer {
+        void apply(byte type, ByteBuffer payload);
+    }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final Object lock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final Thread flusher;
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private int activeIndex;
+    private long appended = 0;
+    private long durable = 0;
+    private boolean closed = false;
+
+    public RecordLog(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public RecordLog(Path dir, int segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        List<Path> existing = listSegments();
+        if (existing.isEmpty()) {
+            openSegment(0);
+        } else {
+            Path last = existing.get(existing.size() - 1);
+            openSegment(segmentIndex(last));
+            int end = scanEnd(active);
+            if (end + 4 <= segmentSize && active.getInt(end) != 0) {
+                // Torn write from a crash: clear it so it can never be mistaken for a record.
+                for (int i = end; i < segmentSize; i++) active.put(i, (byte) 0);
+                active.force();
+            }
+            active.position(end);
+        }
+        flusher = new Thread(this::flushLoop, "record-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /* Appends one record and returns its sequence number for awaitDurable. */
+    public long append(byte type, byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + 4 > segmentSize) throw new IOException("Record too large for log segment: " + payload.length + " bytes");
+        synchronized (lock) {
+            if (closed) throw new IOException("Record log is closed.");
+            // Keep room for the zero length marker that ends a segment.
+            if (active.remaining() < recordSize + 4) {
+                active.force();
+                activeChannel.close();
+                openSegment(activeIndex + 1);
+            }
+            crc.reset();
+            crc.update(type);
+            crc.update(payload);
+            active.putInt(payload.length + 1);
+            active.putInt((int) crc.getValue());
+            active.put(type);
+            active.put(payload);
+            appended++;
+            lock.notifyAll();
+            return appended;
+        }
+    }
+
+    /* Blocks until the record with the given sequence number has been forced to disk. */
+    public void awaitDurable(long seq) {
+        synchronized (lock) {
+            while (durable < seq && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /* Feeds every valid record, oldest first, to the replayer. */
+    public void replay(Replayer replayer) throws IOException {
+        List<Path> segments;
+        synchronized (lock) {
+            segments = listSegments();
+        }
+        for (Path segment : segments) {
+            try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                int end = scanEnd(buf);
+                int pos = 0;
+                while (pos < end) {
+                    int length = buf.getInt(pos);
+                    byte type = buf.get(pos + 8);
+                    ByteBuffer payload = buf.slice(pos + HEADER_SIZE, length - 1);
+                    replayer.apply(type, payload);
+                    pos += 8 + length;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            active.force();
+            activeChannel.close();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (lock) {
+                while (durable == appended && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) return;
+                target = appended;
+                toForce = active;
+            }
+            // Forcing happens outside the lock so appends keep going and join the next batch.
+            // A segment roll forces the old segment itself, so forcing a stale buffer is harmless.
+            toForce.force();
+            synchronized (lock) {
+                durable = Math.max(durable, target);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /* Returns the offset just past the last valid record. A torn or corrupted tail is ignored. */
+    private int scanEnd(ByteBuffer buf) {
+        int pos = 0;
+        int limit = buf.limit();
+        CRC32C check = new CRC32C();
+        while (pos + HEADER_SIZE <= limit) {
+            int length = buf.getInt(pos);
+            if (length <= 0 || pos + 8 + length > limit) break;
+            check.reset();
+            check.update(buf.slice(pos + 8, length));
+            if ((int) check.getValue() != buf.getInt(pos + 4)) break;
+            pos += 8 + length;
+        }
+        return pos;
+    }
+
+    private void openSegment(int index) throws IOException {
+        Path file = dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeIndex = index;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : ds) out.add(p);
+        }
+        out.sort(Comparator.comparingInt(RecordLog::segmentIndex));
+        return out;
+    }
+
+    private static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /* ---------------------------
+       Payload helpers
+       --------------------------- */
+    static final class PayloadWriter {
+        private ByteBuffer buf = ByteBuffer.allocate(256);
+
+        PayloadWriter putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+            return this;
+        }
+
+        PayloadWriter putString(String s) {
+            byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+            return this;
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(buf.array(), buf.position());
+        }
+
+        private void ensure(int n) {
+            if (buf.remaining() >= n) return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+    }
+
+    static String getString(ByteBuffer payload) {
+        int len = payload.getInt();
+        byte[] bytes = new byte[len];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
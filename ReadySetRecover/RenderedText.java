@@ -0,0 +1,43 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/* ---------------------------
+   Rendered Text
+   A fixed block of console output (such as a guide) rendered once, so
+   showing it is one write instead of dozens of println calls.
+   Plain ASCII text is kept as bytes: those are the same in every
+   session charset, so one rendering serves the console and every
+   remote operator alike. Any other text is kept as a string and
+   encoded by each session as it is written.
+   --------------------------- */
+final class RenderedText {
+    private final byte[] ascii;
+    private final String text;
+
+    private RenderedText(byte[] ascii, String text) {
+        this.ascii = ascii;
+        this.text = text;
+    }
+
+    static RenderedText render(Consumer<PrintStream> writer) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        writer.accept(out);
+        out.flush();
+        byte[] bytes = buffer.toByteArray();
+        for (byte b : bytes) {
+            if (b < 0) return new RenderedText(null, new String(bytes, StandardCharsets.UTF_8));
+        }
+        return new RenderedText(bytes, null);
+    }
+
+    public void writeTo(PrintStream out) {
+        if (ascii != null) {
+            out.write(ascii, 0, ascii.length);
+        } else {
+            out.print(text);
+        }
+    }
+}
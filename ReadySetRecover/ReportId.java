@@ -0,0 +1,162 @@
+import java.io.PrintStream;
+
+/* ---------------------------
+   Report IDs
+   A report ID is one 64-bit number:
+     bits 63-60  disaster type (ordinal + 1, so no ID is ever 0)
+     bits 59-44  node: the field station that filed it (-Drsr.node, 0-65535)
+     bits 43-0   sequence number within that type and node
+   IDs from different stations never collide, so their data can be
+   merged as is.
+
+   The human form is the type's code prefix, the sequence number padded
+   to at least three digits, and the node after a dash unless it is 0:
+   "EQ001", "FLD1234", "TYP042-7". IDs written before nodes existed
+   ("EQ001") read back as node 0. Formatting and parsing use no String
+   formatting machinery: toString fills one char array of exactly the
+   right length and makes the String from it; appendTo and parsing
+   allocate nothing.
+   --------------------------- */
+final class ReportId {
+    static final long INVALID = -1;
+    static final int MAX_NODE = 0xFFFF;
+    static final long MAX_SEQUENCE = (1L << 44) - 1;
+
+    private static final DisasterType[] TYPES = DisasterType.values();
+    private static final int LOCAL_NODE = readLocalNode();
+
+    private ReportId() {}
+
+    static long of(DisasterType type, int node, long sequence) {
+        if (node < 0 || node > MAX_NODE) throw new IllegalArgumentException("Node out of range: " + node);
+        if (sequence < 0 || sequence > MAX_SEQUENCE) throw new IllegalStateException("Report sequence exhausted for " + type);
+        return (long) (type.ordinal() + 1) << 60 | (long) node << 44 | sequence;
+    }
+
+    static DisasterType type(long id) { return TYPES[(int) (id >>> 60) - 1]; }
+    static int node(long id) { return (int) (id >>> 44) & MAX_NODE; }
+    static long sequence(long id) { return id & MAX_SEQUENCE; }
+
+    /* This station's node number, from -Drsr.node (default 0). */
+    static int localNode() {
+        return LOCAL_NODE;
+    }
+
+    /* Warns that journalled reports would clash with another station's if no node was configured. */
+    static void warnIfNodeUnset(Journal journal, PrintStream out) {
+        if (System.getProperty("rsr.node") != null || !journal.isEnabled()) return;
+        out.println(" Warning: no station node set (-Drsr.node); report IDs such as EQ001 will clash with those of"
+                + " any other station left unset if their data is ever merged.");
+    }
+
+    private static int readLocalNode() {
+        String configured = System.getProperty("rsr.node");
+        if (configured == null) return 0;
+        try {
+            int node = Integer.parseInt(configured.trim());
+            if (node >= 0 && node <= MAX_NODE) return node;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        System.out.println(" Warning: -Drsr.node must be a number from 0 to " + MAX_NODE + "; using node 0.");
+        return 0;
+    }
+
+    static String toString(long id) {
+        char[] buf = new char[length(id)];
+        format(id, buf);
+        return new String(buf);
+    }
+
+    /* Appends the human form straight into sb, with no buffer in between. */
+    static StringBuilder appendTo(StringBuilder sb, long id) {
+        sb.append(type(id).getCodePrefix());
+        long seq = sequence(id);
+        for (int pad = 3 - digits(seq); pad > 0; pad--) sb.append('0');
+        sb.append(seq);
+        int node = node(id);
+        if (node != 0) sb.append('-').append(node);
+        return sb;
+    }
+
+    // The number of chars in the human form.
+    private static int length(long id) {
+        int n = type(id).getCodePrefix().length() + Math.max(3, digits(sequence(id)));
+        int node = node(id);
+        return node == 0 ? n : n + 1 + digits(node);
+    }
+
+    // Writes the human form into buf, which is exactly length(id) chars long.
+    private static void format(long id, char[] buf) {
+        String prefix = type(id).getCodePrefix();
+        int n = prefix.length();
+        prefix.getChars(0, n, buf, 0);
+        long seq = sequence(id);
+        int digits = Math.max(3, digits(seq));
+        for (int i = n + digits - 1; i >= n; i--) {
+            buf[i] = (char) ('0' + seq % 10);
+            seq /= 10;
+        }
+        n += digits;
+        int node = node(id);
+        if (node != 0) {
+            buf[n] = '-';
+            for (int i = buf.length - 1; i > n; i--) {
+                buf[i] = (char) ('0' + node % 10);
+                node /= 10;
+            }
+        }
+    }
+
+    private static int digits(long v) {
+        int d = 1;
+        while (v >= 10) {
+            v /= 10;
+            d++;
+        }
+        return d;
+    }
+
+    /* The ID in its human form, in any case and with surrounding spaces; INVALID if it is not one. */
+    static long parse(CharSequence text) {
+        if (text == null) return INVALID;
+        int start = 0, end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        for (DisasterType type : TYPES) {
+            String prefix = type.getCodePrefix();
+            int p = prefix.length();
+            if (end - start <= p || !regionMatches(text, start, prefix)) continue;
+            int i = start + p;
+            long seq = 0;
+            int seqStart = i;
+            while (i < end && isDigit(text.charAt(i))) {
+                seq = seq * 10 + (text.charAt(i++) - '0');
+                if (seq > MAX_SEQUENCE) return INVALID;
+            }
+            if (i == seqStart) return INVALID;
+            int node = 0;
+            if (i < end) {
+                if (text.charAt(i++) != '-' || i == end) return INVALID;
+                while (i < end && isDigit(text.charAt(i))) {
+                    node = node * 10 + (text.charAt(i++) - '0');
+                    if (node > MAX_NODE) return INVALID;
+                }
+                if (i != end) return INVALID;
+            }
+            return of(type, node, seq);
+        }
+        return INVALID;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
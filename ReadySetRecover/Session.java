@@ -0,0 +1,41 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/* ---------------------------
+   Session
+   The input and output of one operator. Every module of a session reads
+   from the same LineReader, so no module can buffer ahead and swallow
+   input meant for another one. Output is flushed whenever the session
+   waits for input, so prompts written with print() always reach the
+   operator.
+   --------------------------- */
+final class Session {
+    private final LineReader in;
+    private final PrintStream out;
+
+    public Session(InputStream input, OutputStream output, Charset charset) {
+        this.out = new PrintStream(output, false, charset);
+        this.in = new LineReader(input, charset, out);
+    }
+
+    /* The local terminal. Output goes to the terminal's file descriptor through a buffer of its own;
+       System.out would pass on (and flush) every single write. */
+    public static Session console() {
+        OutputStream terminal = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);
+        return new Session(System.in, terminal, Charset.defaultCharset());
+    }
+
+    /* A remote operator connected over the line protocol. */
+    public static Session remote(InputStream input, OutputStream output) {
+        return new Session(input, output, StandardCharsets.UTF_8);
+    }
+
+    public LineReader in() { return in; }
+    public PrintStream out() { return out; }
+}
@@ -0,0 +1,203 @@
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* ---------------------------
+   Situation statistics
+   Live report counts by disaster type, place, injury (its severity,
+   and whether the person is hurt at all) and status, kept up to date
+   as reports change instead of counted on demand. Severity alone
+   cannot tell "none" from a cut, both being Minor, so "active flood
+   reports with injuries in Nasugbu" asks for injured reports.
+
+   Reports are grouped into cells of the same type, place, severity and
+   injured or not, which never change for a report; each cell holds one
+   counter per status. A report remembers its cell, so a status change
+   moves one count between two counters of that cell: O(1), no lookup,
+   no allocation. Counters are LongAdders, so writers on different
+   threads do not contend, and reading never blocks a writer. A read
+   that races a status change may see the report in both statuses or
+   in neither for that moment.
+   --------------------------- */
+final class SituationStats {
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+
+    static final class Cell {
+        final DisasterType type;
+        final String place;
+        final Severity severity;
+        final boolean injured;
+        private final LongAdder[] byStatus = new LongAdder[STATUSES.length];
+
+        Cell(DisasterType type, String place, Severity severity, boolean injured) {
+            this.type = type;
+            this.place = place;
+            this.severity = severity;
+            this.injured = injured;
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] = new LongAdder();
+        }
+
+        long count(ReportStatus status) {
+            return byStatus[status.ordinal()].sum();
+        }
+    }
+
+    /* ---- Updates, called by the disaster managers ---- */
+
+    void added(Report r) {
+        DisasterType type = ReportId.type(r.getKey());
+        boolean injured = !Severity.meansUninjured(r.getInjuryType());
+        String key = type.ordinal() + "|" + r.getSeverity().ordinal() + (injured ? "|i|" : "|u|") + r.getLocationKey();
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell(type, r.getLocationKey(), r.getSeverity(), injured));
+        r.setStatsCell(cell);
+        cell.byStatus[r.getStatus().ordinal()].increment();
+    }
+
+    void moved(Report r, ReportStatus from, ReportStatus to) {
+        Cell cell = r.getStatsCell();
+        if (cell == null) return;
+        cell.byStatus[from.ordinal()].decrement();
+        cell.byStatus[to.ordinal()].increment();
+    }
+
+    void purged(Report r) {
+        Cell cell = r.getStatsCell();
+        if (cell != null) cell.byStatus[r.getStatus().ordinal()].decrement();
+    }
+
+    /* ---- Reads ---- */
+
+    /* Reports matching every given criterion; null means any. A place is matched by its place key
+       (see Gazetteer.placeKey), so "Lipa" and "Lipa City" count the same reports. injured is true for
+       reports of someone hurt, false for "none", "uninjured" and the like (see Severity.meansUninjured). */
+    public long count(DisasterType type, String place, Severity severity, Boolean injured, ReportStatus status) {
+        String placeKey = place == null ? null : Gazetteer.placeKey(place);
+        long total = 0;
+        for (Cell c : cells.values()) {
+            if ((type == null || c.type == type) && (placeKey == null || c.place.equals(placeKey))
+                    && (severity == null || c.severity == severity) && (injured == null || c.injured == injured)) {
+                if (status != null) {
+                    total += c.count(status);
+                } else {
+                    for (ReportStatus s : STATUSES) total += c.count(s);
+                }
+            }
+        }
+        return total;
+    }
+
+    /* Counts by status for each disaster type. */
+    public Map<DisasterType, long[]> byType() {
+        Map<DisasterType, long[]> out = new EnumMap<>(DisasterType.class);
+        for (DisasterType t : DisasterType.values()) out.put(t, new long[STATUSES.length]);
+        for (Cell c : cells.values()) add(out.get(c.type), c);
+        return out;
+    }
+
+    /* Counts by status for each severity. */
+    public Map<Severity, long[]> bySeverity() {
+        Map<Severity, long[]> out = new EnumMap<>(Severity.class);
+        for (Severity s : Severity.values()) out.put(s, new long[STATUSES.length]);
+        for (Cell c : cells.values()) add(out.get(c.severity), c);
+        return out;
+    }
+
+    /* Counts by status of reports of injured people (index 1) and of unhurt ones (index 0). */
+    public long[][] byInjured() {
+        long[][] out = new long[2][STATUSES.length];
+        for (Cell c : cells.values()) add(out[c.injured ? 1 : 0], c);
+        return out;
+    }
+
+    /* Counts by status for each place key that has had reports. */
+    public Map<String, long[]> byPlace() {
+        Map<String, long[]> out = new HashMap<>();
+        for (Cell c : cells.values()) add(out.computeIfAbsent(c.place, k -> new long[STATUSES.length]), c);
+        return out;
+    }
+
+    private static void add(long[] counts, Cell c) {
+        for (ReportStatus s : STATUSES) counts[s.ordinal()] += c.count(s);
+    }
+}
+
+/* ---------------------------
+   Situation summary
+   The statistics of the report desk and the survivor registry as
+   tables for the operator's screen.
+   --------------------------- */
+final class SituationSummary {
+    private static final int TOP_PLACES = 10;
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+
+    private SituationSummary() {}
+
+    static void render(SituationStats stats, SurvivorRegistry survivors, PrintStream out) {
+        out.println("=====================================================================");
+        out.println("                       SITUATION SUMMARY");
+        out.println("=====================================================================");
+        out.printf("%-14s%10s%12s%10s%10s%n", "Disaster", "Active", "Dispatched", "Resolved", "Deleted");
+        long[] total = new long[STATUSES.length];
+        for (Map.Entry<DisasterType, long[]> e : stats.byType().entrySet()) {
+            row(out, e.getKey().getDisplayName(), e.getValue());
+            for (int i = 0; i < total.length; i++) total[i] += e.getValue()[i];
+        }
+        row(out, "All", total);
+        out.println("---------------------------------------------------------------------");
+        out.printf("%-14s%10s%12s%10s%10s%n", "Severity", "Active", "Dispatched", "Resolved", "Deleted");
+        for (Map.Entry<Severity, long[]> e : stats.bySeverity().entrySet()) row(out, e.getKey().getLabel(), e.getValue());
+        long[][] injured = stats.byInjured();
+        row(out, "Injured", injured[1]);
+        row(out, "Not injured", injured[0]);
+        out.println("---------------------------------------------------------------------");
+        out.printf("%-24s%10s%12s%10s%n", "Place (most open first)", "Active", "Dispatched", "Resolved");
+        List<Map.Entry<String, long[]>> places = new ArrayList<>(stats.byPlace().entrySet());
+        places.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> -open(e.getValue())).thenComparing(Map.Entry::getKey));
+        for (int i = 0; i < places.size() && i < TOP_PLACES; i++) {
+            long[] c = places.get(i).getValue();
+            out.printf("%-24s%10d%12d%10d%n", displayName(places.get(i).getKey()),
+                    c[ReportStatus.ACTIVE.ordinal()], c[ReportStatus.DISPATCHED.ordinal()], c[ReportStatus.RESOLVED.ordinal()]);
+        }
+        if (places.size() > TOP_PLACES) out.println("... and " + (places.size() - TOP_PLACES) + " more places");
+        out.println("---------------------------------------------------------------------");
+        out.println("Survivors registered: " + survivors.size());
+        printTop(out, "By location", survivors.countsByLocation());
+        printTop(out, "By health status", survivors.countsByHealthStatus());
+        out.println("=====================================================================");
+    }
+
+    private static void row(PrintStream out, String label, long[] c) {
+        out.printf("%-14s%10d%12d%10d%10d%n", label, c[0], c[1], c[2], c[3]);
+    }
+
+    private static long open(long[] c) {
+        return c[ReportStatus.ACTIVE.ordinal()] + c[ReportStatus.DISPATCHED.ordinal()];
+    }
+
+    private static void printTop(PrintStream out, String title, Map<String, Long> counts) {
+        if (counts.isEmpty()) return;
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry::getKey));
+        StringBuilder line = new StringBuilder(title).append(':');
+        for (int i = 0; i < sorted.size() && i < TOP_PLACES; i++) {
+            line.append(i == 0 ? " " : ", ").append(displayName(sorted.get(i).getKey())).append(' ').append(sorted.get(i).getValue());
+        }
+        out.println(line);
+    }
+
+    // Place keys and health statuses are kept lower case; show them with capitals.
+    static String displayName(String key) {
+        if (key.isEmpty()) return "(unspecified)";
+        StringBuilder sb = new StringBuilder(key.length());
+        boolean start = true;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            sb.append(start ? Character.toUpperCase(c) : c);
+            start = c == ' ';
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,370 @@
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/* ---------------------------
+   Survivor model (Encapsulation)
+   --------------------------- */
+class Survivor {
+    private final long id;
+    private final String name;
+    private final String nameKey;
+    private final String location;
+    private final String locationKey;
+    private final String healthStatus;
+    private final String assistanceNeeded;
+
+    public Survivor(long id, String name, String location, String healthStatus, String assistanceNeeded) {
+        this.id = id;
+        this.name = name;
+        this.nameKey = SurvivorRegistry.nameKey(name);
+        this.location = location;
+        this.locationKey = Gazetteer.placeKey(location);
+        this.healthStatus = healthStatus;
+        this.assistanceNeeded = assistanceNeeded;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    String getNameKey() { return nameKey; }
+    public String getLocation() { return location; }
+    String getLocationKey() { return locationKey; }
+    public String getHealthStatus() { return healthStatus; }
+    public String getAssistanceNeeded() { return assistanceNeeded; }
+
+    public void display(PrintStream out) {
+        out.println("-----------------------------");
+        out.println("Name: " + name);
+        out.println("Location: " + location);
+        out.println("Health Status: " + healthStatus);
+        out.println("Assistance Needed: " + assistanceNeeded);
+    }
+}
+
+/* ---------------------------
+   Sort keys for the survivor listing
+   --------------------------- */
+enum SurvivorSortKey {
+    NAME("name", Survivor::getName),
+    LOCATION("location", Survivor::getLocation),
+    HEALTH_STATUS("health status", Survivor::getHealthStatus);
+
+    private final String label;
+    private final Comparator<Survivor> order;
+
+    SurvivorSortKey(String label, java.util.function.Function<Survivor, String> field) {
+        this.label = label;
+        // Ties are broken by registration id so that every survivor has a distinct position.
+        this.order = Comparator.comparing(field, String.CASE_INSENSITIVE_ORDER)
+                .thenComparingLong(Survivor::getId);
+    }
+
+    public String getLabel() { return label; }
+    public Comparator<Survivor> order() { return order; }
+}
+
+/* ---------------------------
+   Survivor Registry
+   Keeps survivors in insertion order and indexes them by
+   case-insensitive name. Several survivors may share a name,
+   so the name index maps to a small list of entries. A trigram
+   index over the names answers partial-name searches, and counts by
+   place and health status are kept up to date for the situation
+   summary; reading them takes no lock.
+   Sorted views are built on first use and kept in order
+   as survivors are added or removed afterwards.
+   Shared by every operator session: reads take a read lock and
+   return snapshots, changes take the write lock.
+   --------------------------- */
+class SurvivorRegistry {
+    private final Map<Long, Survivor> survivors = new LinkedHashMap<>();
+    private final Map<String, List<Survivor>> byName = new HashMap<>();
+    // Concurrent itself, so searches need not take the lock.
+    private final NGramIndex<Survivor> nameGrams = new NGramIndex<>(Survivor::getNameKey, Comparator.comparingLong(Survivor::getId));
+    private final Map<SurvivorSortKey, TreeSet<Survivor>> sortedViews = new EnumMap<>(SurvivorSortKey.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong nextId = new AtomicLong();
+    private Journal journal = Journal.DISABLED;
+    private EventRing events;
+    private final Map<String, LongAdder> byLocation = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byHealthStatus = new ConcurrentHashMap<>();
+
+    /* Replays the journal into this registry, then records every later change in it. */
+    public void attachJournal(Journal journal) {
+        lock.writeLock().lock();
+        try {
+            journal.replay(new Journal.Handler() {
+                @Override
+                public void survivorAdded(long id, String name, String location, String healthStatus, String assistanceNeeded) {
+                    index(new Survivor(id, name, location, healthStatus, assistanceNeeded));
+                    nextId.accumulateAndGet(id, Math::max);
+                }
+
+                @Override
+                public void survivorDeleted(long id) {
+                    Survivor s = survivors.get(id);
+                    if (s != null) unindex(s);
+                }
+            });
+            this.journal = journal;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* Adds and removals after this call are published to the ring. */
+    public void attachEvents(EventRing events) {
+        this.events = events;
+    }
+
+    public Survivor add(String name, String location, String healthStatus, String assistanceNeeded) {
+        Survivor s = new Survivor(nextId.incrementAndGet(), name, location, healthStatus, assistanceNeeded);
+        // Journal first, outside the lock, so concurrent adds share one disk flush.
+        journal.survivorAdded(s);
+        lock.writeLock().lock();
+        try {
+            index(s);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (events != null) events.publishSurvivor(ChangeKind.SURVIVOR_ADDED, s);
+        return s;
+    }
+
+    /* Bulk add. Each row is {name, location, health status, assistance needed}; the batch shares one journal flush. */
+    public List<Survivor> addAll(List<String[]> rows) {
+        List<Survivor> batch = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            batch.add(new Survivor(nextId.incrementAndGet(), row[0], row[1], row[2], row[3]));
+        }
+        journal.survivorsAdded(batch);
+        lock.writeLock().lock();
+        try {
+            for (Survivor s : batch) index(s);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (events != null) {
+            for (Survivor s : batch) events.publishSurvivor(ChangeKind.SURVIVOR_ADDED, s);
+        }
+        return batch;
+    }
+
+    public List<Survivor> findByName(String name) {
+        if (name == null) return Collections.emptyList();
+        long start = Metrics.now();
+        List<Survivor> found = named(nameKey(name));
+        if (found.isEmpty()) Metrics.SURVIVORS_NOT_FOUND.increment();
+        Metrics.SEARCH_SURVIVORS.record(start);
+        return found;
+    }
+
+    private List<Survivor> named(String key) {
+        lock.readLock().lock();
+        try {
+            List<Survivor> found = byName.get(key);
+            return found == null ? Collections.emptyList() : List.copyOf(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* Survivors with exactly this name, then those whose name contains it, in registration order, up to limit.
+       Names shorter than three letters only match exactly. */
+    public List<Survivor> search(String name, int limit) {
+        if (name == null || name.isBlank()) return Collections.emptyList();
+        long start = Metrics.now();
+        String key = nameKey(name);
+        Set<Survivor> found = new LinkedHashSet<>(named(key));
+        if (NGramIndex.canSearch(key) && found.size() < limit) found.addAll(nameGrams.find(key, limit));
+        List<Survivor> out = new ArrayList<>(found);
+        if (out.isEmpty()) Metrics.SURVIVORS_NOT_FOUND.increment();
+        Metrics.SEARCH_SURVIVORS.record(start);
+        return out.size() > limit ? out.subList(0, limit) : out;
+    }
+
+    public boolean remove(Survivor s) {
+        lock.writeLock().lock();
+        try {
+            if (!unindex(s)) return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        journal.survivorDeleted(s.getId());
+        if (events != null) events.publishSurvivor(ChangeKind.SURVIVOR_DELETED, s);
+        return true;
+    }
+
+    public List<Survivor> sorted(SurvivorSortKey key) {
+        long start = Metrics.now();
+        try {
+            return sortedView(key);
+        } finally {
+            Metrics.SORT_SURVIVORS.record(start);
+        }
+    }
+
+    private List<Survivor> sortedView(SurvivorSortKey key) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Survivor> view = sortedViews.get(key);
+            if (view != null) return new ArrayList<>(view);
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            return new ArrayList<>(sortedViews.computeIfAbsent(key, this::buildView));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Survivor> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(survivors.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return survivors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    /* Survivors per place key (see Gazetteer.placeKey). */
+    public Map<String, Long> countsByLocation() {
+        return counts(byLocation);
+    }
+
+    /* Survivors per health status, in lower case. */
+    public Map<String, Long> countsByHealthStatus() {
+        return counts(byHealthStatus);
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> adders) {
+        Map<String, Long> out = new HashMap<>();
+        adders.forEach((k, n) -> {
+            long v = n.sum();
+            if (v > 0) out.put(k, v);
+        });
+        return out;
+    }
+
+    private void index(Survivor s) {
+        survivors.put(s.getId(), s);
+        byName.computeIfAbsent(s.getNameKey(), k -> new ArrayList<>(1)).add(s);
+        nameGrams.add(s);
+        byLocation.computeIfAbsent(s.getLocationKey(), k -> new LongAdder()).increment();
+        byHealthStatus.computeIfAbsent(nameKey(s.getHealthStatus()), k -> new LongAdder()).increment();
+        for (TreeSet<Survivor> view : sortedViews.values()) view.add(s);
+    }
+
+    private boolean unindex(Survivor s) {
+        if (survivors.remove(s.getId()) == null) return false;
+        String key = s.getNameKey();
+        nameGrams.remove(s);
+        byLocation.get(s.getLocationKey()).decrement();
+        byHealthStatus.get(nameKey(s.getHealthStatus())).decrement();
+        List<Survivor> sameName = byName.get(key);
+        if (sameName != null) {
+            sameName.remove(s);
+            if (sameName.isEmpty()) byName.remove(key);
+        }
+        for (TreeSet<Survivor> view : sortedViews.values()) view.remove(s);
+        return true;
+    }
+
+    private TreeSet<Survivor> buildView(SurvivorSortKey key) {
+        Survivor[] snapshot = survivors.values().toArray(new Survivor[0]);
+        Arrays.parallelSort(snapshot, key.order());
+        TreeSet<Survivor> view = new TreeSet<>(key.order());
+        view.addAll(new SortedRun(snapshot, key.order()));
+        return view;
+    }
+
+    static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /* An already sorted array (or a range of it) presented as a SortedSet, so
+       that TreeSet.addAll can build the tree in linear time instead of
+       inserting one by one. The ranges are found by binary search. */
+    private static final class SortedRun extends AbstractSet<Survivor> implements SortedSet<Survivor> {
+        private final Survivor[] items;
+        private final Comparator<Survivor> order;
+        private final int from, to;
+
+        SortedRun(Survivor[] items, Comparator<Survivor> order) {
+            this(items, order, 0, items.length);
+        }
+
+        private SortedRun(Survivor[] items, Comparator<Survivor> order, int from, int to) {
+            this.items = items;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override public Iterator<Survivor> iterator() { return Arrays.asList(items).subList(from, to).iterator(); }
+        @Override public int size() { return to - from; }
+        @Override public Comparator<? super Survivor> comparator() { return order; }
+
+        @Override
+        public Survivor first() {
+            if (from == to) throw new NoSuchElementException();
+            return items[from];
+        }
+
+        @Override
+        public Survivor last() {
+            if (from == to) throw new NoSuchElementException();
+            return items[to - 1];
+        }
+
+        @Override
+        public SortedSet<Survivor> subSet(Survivor fromElement, Survivor toElement) {
+            if (order.compare(fromElement, toElement) > 0) throw new IllegalArgumentException("fromElement > toElement");
+            return new SortedRun(items, order, firstNotBefore(fromElement), firstNotBefore(toElement));
+        }
+
+        @Override
+        public SortedSet<Survivor> headSet(Survivor toElement) {
+            return new SortedRun(items, order, from, firstNotBefore(toElement));
+        }
+
+        @Override
+        public SortedSet<Survivor> tailSet(Survivor fromElement) {
+            return new SortedRun(items, order, firstNotBefore(fromElement), to);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Survivor s)) return false;
+            int i = firstNotBefore(s);
+            return i < to && order.compare(items[i], s) == 0;
+        }
+
+        // Index of the first item in the range that does not sort before s.
+        private int firstNotBefore(Survivor s) {
+            int lo = from, hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (order.compare(items[mid], s) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
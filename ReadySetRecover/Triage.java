@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* ---------------------------
+   Injury severity
+   How urgently a report needs a responder, read from the injury an
+   operator typed. Words are matched most severe level first, so
+   "burns and fracture" is Serious and "drowning, minor cuts" is
+   Critical. An injury that matches nothing is Unassessed, which ranks
+   above Moderate: an unknown injury must not wait behind a sprain.
+
+   Each entry is a word stem matched at the start of a word ("fractur"
+   finds "fractured" but "cut" does not find "acute"); an entry ending
+   in '.' must be the whole word ("stab." finds "stab" but not
+   "stable"). In an entry of several words the words before the last
+   must be whole words of the injury, in that order.
+   --------------------------- */
+enum Severity {
+    CRITICAL("Critical", "drown", "electr", "shock", "unconscious", "not breathing", "no pulse", "cardiac",
+            "heart attack", "stroke", "seizure", "head injur", "head trauma", "head wound", "chest", "spine",
+            "spinal", "crush", "trapped", "pinned", "severe", "heavy bleeding", "hemorrhag", "amputat", "choking", "suffocat", "hypotherm", "poison"),
+    SERIOUS("Serious", "fracture", "broken", "burn", "bleed", "smoke", "inhal", "dislocat", "concussion",
+            "deep cut", "pregnan", "labor.", "labour.", "in labor", "abdomen", "stab.", "stabb", "impale", "fever"),
+    UNASSESSED("Unassessed"),
+    MODERATE("Moderate", "sprain", "wound", "laceration", "infect", "dehydrat", "vomit", "diarrhea", "swell",
+            "pain", "dizz"),
+    MINOR("Minor", "minor", "cut", "scratch", "bruise", "scrape", "abrasion", "blister", "none", "no injury",
+            "no injuries", "not injured", "not hurt", "uninjured", "unhurt");
+
+    private static final Severity[] LEVELS = values();
+
+    private final String label;
+    private final String[][] words;
+
+    Severity(String label, String... words) {
+        this.label = label;
+        this.words = new String[words.length][];
+        for (int i = 0; i < words.length; i++) this.words[i] = words[i].split(" ");
+    }
+
+    public String getLabel() { return label; }
+
+    public static Severity classify(String injuryType) {
+        if (injuryType == null || injuryType.isBlank()) return UNASSESSED;
+        String[] text = words(injuryType.toLowerCase(Locale.ROOT));
+        for (Severity level : LEVELS) {
+            for (String[] entry : level.words) {
+                if (foundIn(entry, text)) return level;
+            }
+        }
+        return UNASSESSED;
+    }
+
+    // The runs of letters and digits in the text.
+    private static String[] words(String text) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) start = i;
+            if (!inWord && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /* True if the injury text says the person is not hurt ("none", "no injury", "uninjured"), as opposed
+       to a minor injury; a blank text is not known to be either and counts as injured. */
+    public static boolean meansUninjured(String injuryType) {
+        if (injuryType == null || injuryType.isBlank()) return false;
+        String[] text = words(injuryType.toLowerCase(Locale.ROOT));
+        for (String[] entry : UNINJURED) {
+            if (foundIn(entry, text)) return !injuredToo(text);
+        }
+        return false;
+    }
+
+    // "no injury" with a named injury besides ("none, but a cut on the arm") still counts as injured.
+    private static boolean injuredToo(String[] text) {
+        for (Severity level : LEVELS) {
+            if (level == MINOR) continue;
+            for (String[] entry : level.words) {
+                if (foundIn(entry, text)) return true;
+            }
+        }
+        for (String[] entry : MINOR.words) {
+            if (!isUninjuredEntry(entry) && foundIn(entry, text)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isUninjuredEntry(String[] entry) {
+        for (String[] u : UNINJURED) {
+            if (Arrays.equals(u, entry)) return true;
+        }
+        return false;
+    }
+
+    // The Minor entries that mean no injury at all.
+    private static final String[][] UNINJURED = {{"none"}, {"no", "injury"}, {"no", "injuries"}, {"not", "injured"},
+            {"not", "hurt"}, {"uninjured"}, {"unhurt"}};
+
+    private static boolean foundIn(String[] entry, String[] text) {
+        int last = entry.length - 1;
+        for (int start = 0; start + last < text.length; start++) {
+            boolean found = true;
+            for (int i = 0; i < last && found; i++) found = text[start + i].equals(entry[i]);
+            if (found && matchesWord(entry[last], text[start + last])) return true;
+        }
+        return false;
+    }
+
+    private static boolean matchesWord(String stem, String word) {
+        if (stem.endsWith(".")) return word.length() == stem.length() - 1 && stem.startsWith(word);
+        return word.startsWith(stem);
+    }
+}
+
+/* ---------------------------
+   Triage queue
+   The active reports of every disaster type, most urgent first and,
+   within a severity, the one waiting longest first. Taking the next
+   report, and dropping one, are O(log n) however fast reports keep
+   arriving.
+
+   A report is offered when it becomes Active and dropped when it stops
+   being Active (dispatched, resolved or deleted). Offering a report
+   again replaces its entry with one holding a new ticket. An entry that
+   goes stale anyway (a report deleted while it was being offered) is
+   recognised by its ticket and status and skipped when it reaches the
+   head.
+   --------------------------- */
+final class TriageQueue {
+    private final ConcurrentSkipListSet<Entry> queue = new ConcurrentSkipListSet<>();
+    private final AtomicLong tickets = new AtomicLong();
+
+    public void offer(Report r) {
+        long ticket = tickets.incrementAndGet();
+        long previous = r.getTriageTicket();
+        r.setTriageTicket(ticket);
+        if (previous != 0) queue.remove(new Entry(r, previous));
+        queue.add(new Entry(r, ticket));
+    }
+
+    /* Drops the report's entry, if it has one. */
+    public void remove(Report r) {
+        long ticket = r.getTriageTicket();
+        if (ticket != 0) queue.remove(new Entry(r, ticket));
+    }
+
+    /* The most urgent report still queued, removed from the queue, or null if none is left.
+       The report may have changed status since it was offered; check before acting on it. */
+    public Report poll() {
+        for (Entry e = queue.pollFirst(); e != null; e = queue.pollFirst()) {
+            if (e.report.getTriageTicket() == e.ticket && e.report.getStatus() == ReportStatus.ACTIVE) return e.report;
+        }
+        return null;
+    }
+
+    /* Entries waiting. */
+    public int size() {
+        return queue.size();
+    }
+
+    // Ordered by severity, then ticket; tickets are unique, so no two entries compare equal.
+    private static final class Entry implements Comparable<Entry> {
+        final Report report;
+        final int severity;
+        final long ticket;
+
+        Entry(Report report, long ticket) {
+            this.report = report;
+            this.severity = report.getSeverity().ordinal();
+            this.ticket = ticket;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (severity != other.severity) return Integer.compare(severity, other.severity);
+            return Long.compare(ticket, other.ticket);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentLongMapTest {
+    @Test
+    void agreesWithHashMapThroughPutsRemovesAndRebuilds() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 200_000; step++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, "v" + step), map.put(key, "v" + step));
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) assertEquals(expected.get(key), map.get(key));
+    }
+
+    @Test
+    void lookupsNeverMissAKeyThatStaysWhileOthersComeAndGo() throws Exception {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        for (long key = 1; key <= 1_000; key++) map.put(key, key);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int round = 0; round < 200; round++) {
+                for (long key = 1_001; key <= 3_000; key++) map.put(key, key);
+                for (long key = 1_001; key <= 3_000; key++) map.remove(key);
+            }
+            done.set(true);
+        });
+        writer.start();
+        while (!done.get()) {
+            for (long key = 1; key <= 1_000; key++) assertEquals(key, map.get(key));
+        }
+        writer.join();
+        assertEquals(1_000, map.size());
+    }
+}
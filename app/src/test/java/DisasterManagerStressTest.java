@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+/* Several operators filing, deleting and moving reports at once: no change may be lost, and the status
+   bitmaps must agree with the reports and the counts afterwards. */
+class DisasterManagerStressTest {
+    private static final int UPDATERS = 4;
+    private static final int INSERTERS = 2;
+    private static final int REPORTS_PER_UPDATER = 500;
+    private static final int INSERTS_PER_INSERTER = 2000;
+    private static final int STEPS_PER_UPDATER = 20_000;
+
+    @Test
+    void concurrentInsertsDeletesAndStatusChangesAgree() throws Exception {
+        DisasterManager manager = new FloodManager(new HospitalDirectory());
+
+        // Each updater owns its reports, so it knows the status each must end in.
+        List<List<Report>> owned = new ArrayList<>();
+        for (int u = 0; u < UPDATERS; u++) {
+            List<Report> mine = new ArrayList<>();
+            for (int i = 0; i < REPORTS_PER_UPDATER; i++) {
+                mine.add(manager.insertReport("Updater " + u + " Person " + i, "Lipa City", "flooded", "none"));
+            }
+            owned.add(mine);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(UPDATERS + INSERTERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Map<Report, ReportStatus>>> updaters = new ArrayList<>();
+        for (int u = 0; u < UPDATERS; u++) {
+            List<Report> mine = owned.get(u);
+            long seed = u;
+            updaters.add(pool.submit(() -> {
+                go.await();
+                return update(manager, mine, new Random(seed));
+            }));
+        }
+        List<Future<List<Report>>> inserters = new ArrayList<>();
+        for (int n = 0; n < INSERTERS; n++) {
+            int inserter = n;
+            inserters.add(pool.submit(() -> {
+                go.await();
+                List<Report> filed = new ArrayList<>();
+                for (int i = 0; i < INSERTS_PER_INSERTER; i++) {
+                    filed.add(manager.insertReport("Inserter " + inserter + " Person " + i, "Bauan", "flooded", "cut"));
+                }
+                return filed;
+            }));
+        }
+        go.countDown();
+
+        Map<Report, ReportStatus> expected = new HashMap<>();
+        for (Future<Map<Report, ReportStatus>> f : updaters) expected.putAll(f.get(60, TimeUnit.SECONDS));
+        for (Future<List<Report>> f : inserters) {
+            for (Report r : f.get(60, TimeUnit.SECONDS)) expected.put(r, ReportStatus.ACTIVE);
+        }
+        pool.shutdown();
+
+        Set<Long> sequences = new HashSet<>();
+        int live = 0;
+        for (Map.Entry<Report, ReportStatus> e : expected.entrySet()) {
+            Report r = e.getKey();
+            assertEquals(e.getValue(), r.getStatus(), "status of " + r.getId());
+            assertTrue(sequences.add(r.getSequence()), "arrival number reused: " + r.getSequence());
+            for (ReportStatus s : ReportStatus.values()) {
+                assertEquals(s == r.getStatus(), manager.byStatus.get(s).get(r.getSequence()),
+                        r.getId() + " in the " + s + " bitmap");
+            }
+            if (r.getStatus() != ReportStatus.DELETED) live++;
+        }
+        int inBitmaps = 0;
+        for (ReportStatus s : ReportStatus.values()) {
+            if (s != ReportStatus.DELETED) inBitmaps += count(manager.byStatus.get(s));
+        }
+        assertEquals(UPDATERS * REPORTS_PER_UPDATER + INSERTERS * INSERTS_PER_INSERTER, expected.size());
+        assertEquals(live, manager.getReportCount());
+        assertEquals(live, manager.getAllReports().size());
+        assertEquals(live, inBitmaps);
+        assertEquals(expected.size() - live, count(manager.byStatus.get(ReportStatus.DELETED)));
+    }
+
+    // Random status changes and deletes on the updater's own reports; returns the status each should end in.
+    private static Map<Report, ReportStatus> update(DisasterManager manager, List<Report> mine, Random random)
+            throws ReportNotFoundException {
+        Map<Report, ReportStatus> expected = new HashMap<>();
+        for (Report r : mine) expected.put(r, ReportStatus.ACTIVE);
+        ReportStatus[] moves = {ReportStatus.ACTIVE, ReportStatus.DISPATCHED, ReportStatus.RESOLVED};
+        for (int step = 0; step < STEPS_PER_UPDATER; step++) {
+            Report r = mine.get(random.nextInt(mine.size()));
+            ReportStatus current = expected.get(r);
+            if (current == ReportStatus.DELETED) continue;
+            if (random.nextInt(50) == 0) {
+                assertTrue(manager.deleteReport(r.getId()));
+                expected.put(r, ReportStatus.DELETED);
+                continue;
+            }
+            ReportStatus next = moves[random.nextInt(moves.length)];
+            try {
+                manager.updateStatus(r.getId(), next);
+                expected.put(r, next);
+            } catch (InvalidChoiceException e) {
+                assertFalse(current.canMoveTo(next) || current == next, e.getMessage());
+            }
+        }
+        return expected;
+    }
+
+    private static int count(ChunkedBitmap bits) {
+        int n = 0;
+        for (long i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) n++;
+        return n;
+    }
+}
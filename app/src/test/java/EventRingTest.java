@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class EventRingTest {
+    private static Report report(int n, String injury) {
+        return new Report(ReportId.of(DisasterType.FLOOD, 0, n), n, "Person " + n, "Nasugbu", "flooded", injury);
+    }
+
+    @Test
+    void sleepingSubscriberWakesForTheNextEvent() throws Exception {
+        EventRing ring = new EventRing(16);
+        CountDownLatch first = new CountDownLatch(1), second = new CountDownLatch(2);
+        ring.subscribe("test", (e, seq, endOfBatch) -> {
+            first.countDown();
+            second.countDown();
+        });
+        ring.publishReport(ChangeKind.REPORT_INSERTED, report(1, "none"), null);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100); // long enough for the subscriber to park for good
+        ring.publishReport(ChangeKind.REPORT_INSERTED, report(2, "none"), null);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void alertsUseTheStatusAtPublishTime() throws Exception {
+        EventRing ring = new EventRing(16);
+        AlertSubscriber alerts = new AlertSubscriber();
+        CountDownLatch handled = new CountDownLatch(1);
+        ring.subscribe("alerts", alerts);
+        ring.subscribe("done", (e, seq, endOfBatch) -> handled.countDown());
+        Report r = report(1, "drowning");
+        r.moveTo(ReportStatus.DISPATCHED, 0);
+        r.moveTo(ReportStatus.ACTIVE, 0);
+        ring.publishReport(ChangeKind.REPORT_STATUS, r, ReportStatus.DISPATCHED);
+        // Resolved before the subscriber gets to the event: it was still made Active again.
+        r.moveTo(ReportStatus.RESOLVED, 0);
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && alerts.raisedCount() == 0; i++) Thread.sleep(10);
+        assertEquals(1, alerts.raisedCount());
+    }
+}
@@ -0,0 +1,28 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* A short, seeded run of the scripted load test: operators driving the real menus, then the final counts checked. */
+class LoadGeneratorTest {
+    @TempDir
+    Path data;
+
+    @Test
+    void scriptedOperatorsLeaveConsistentCounts() throws Exception {
+        System.setProperty("rsr.data", data.toString());
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        boolean passed;
+        try (PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8)) {
+            passed = new LoadGenerator(300, 300, 3, 1).run(new AppContext(), out);
+        } finally {
+            System.clearProperty("rsr.data");
+        }
+        assertTrue(passed, log.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/* The dump file reports each interval as the difference of two snapshots; a reset over JMX in between must
+   not turn that into negative counts. */
+class MetricsTest {
+    @Test
+    void intervalAfterResetCountsOnlyWhatFollowedIt() {
+        Metrics.Timer timer = new Metrics.Timer("test");
+        for (int i = 0; i < 10; i++) timer.record(Metrics.now());
+        Metrics.Snapshot before = timer.snapshot();
+
+        timer.reset();
+        timer.record(Metrics.now());
+        Metrics.Snapshot interval = timer.snapshot().since(before);
+
+        assertEquals(1, interval.count);
+        long inBuckets = 0;
+        for (long b : interval.buckets) {
+            assertTrue(b >= 0, "negative bucket count");
+            inBuckets += b;
+        }
+        assertEquals(1, inBuckets);
+        assertTrue(interval.totalNanos >= 0);
+    }
+
+    @Test
+    void intervalWithoutResetIsTheDifference() {
+        Metrics.Timer timer = new Metrics.Timer("test");
+        timer.record(Metrics.now());
+        Metrics.Snapshot before = timer.snapshot();
+        timer.record(Metrics.now());
+        timer.record(Metrics.now());
+
+        assertEquals(2, timer.snapshot().since(before).count);
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/* Deleting someone must drop every link to them, including those in lists where they ranked below their own
+   five best, and a list that loses one of its five takes in the next best. */
+class PersonMatcherTest {
+    private ReportDesk desk;
+    private PersonMatcher matcher;
+    private final List<Report> reports = new ArrayList<>();
+    private Survivor survivor;
+
+    @BeforeEach
+    void sixReportsOfOneSurvivor() {
+        desk = new ReportDesk(new HospitalDirectory(), Journal.DISABLED);
+        SurvivorRegistry registry = new SurvivorRegistry();
+        DisasterManager floods = desk.manager(DisasterType.FLOOD);
+        for (int i = 0; i < 6; i++) reports.add(floods.insertReport("Ana Cruz", "Lipa City", "flooded", "none"));
+        survivor = registry.add("Ana Cruz", "Lipa City", "Stable", "Food");
+        matcher = new PersonMatcher(desk, registry, PersonMatcher.DEFAULT_THRESHOLD);
+        matcher.rematch();
+    }
+
+    @AfterEach
+    void closeDesk() {
+        desk.close();
+    }
+
+    @Test
+    void deletedSurvivorLeavesNoLinkBehind() {
+        assertEquals(5, matcher.forSurvivor(survivor).size());
+        for (Report r : reports) assertEquals(1, matcher.forReport(r).size(), r.getId());
+
+        matcher.onEvent(event(ChangeKind.SURVIVOR_DELETED, null, survivor), 0, true);
+
+        assertTrue(matcher.forSurvivor(survivor).isEmpty());
+        for (Report r : reports) assertTrue(matcher.forReport(r).isEmpty(), r.getId() + " still linked");
+        assertTrue(matcher.strongest(10).isEmpty());
+    }
+
+    @Test
+    void deletedReportMakesRoomForTheNextBest() {
+        Report gone = reports.get(0);
+        matcher.onEvent(event(ChangeKind.REPORT_DELETED, gone, null), 0, true);
+
+        List<PersonMatch> links = matcher.forSurvivor(survivor);
+        assertEquals(5, links.size());
+        for (PersonMatch m : links) assertNotSame(gone, m.getReport());
+        assertTrue(links.stream().anyMatch(m -> m.getReport() == reports.get(5)), "sixth report not taken in");
+        assertTrue(matcher.forReport(gone).isEmpty());
+    }
+
+    private static ChangeEvent event(ChangeKind kind, Report report, Survivor survivor) {
+        ChangeEvent e = new ChangeEvent();
+        e.kind = kind;
+        e.report = report;
+        e.survivor = survivor;
+        return e;
+    }
+}
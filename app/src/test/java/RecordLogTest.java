@@ -0,0 +1,141 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* The journal's durability rests on this log: after a crash, replay must return exactly the records written
+   whole, and appending must carry on after them. */
+class RecordLogTest {
+    private static final int SMALL_SEGMENT = 256;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayReturnsRecordsInOrderAcrossSegments() throws IOException {
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            long last = 0;
+            for (int i = 0; i < 40; i++) last = log.append((byte) 1, payload(i));
+            log.awaitDurable(last);
+        }
+        assertTrue(segments().size() > 1, "records should have spilled into more than one segment");
+
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            assertEquals(range(0, 40), replay(log));
+        }
+    }
+
+    @Test
+    void tornTailIsDroppedAndAppendingContinuesAfterTheIntactPrefix() throws IOException {
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            for (int i = 0; i < 5; i++) log.awaitDurable(log.append((byte) 1, payload(i)));
+        }
+        // Corrupt one byte of the last record's payload, as a write torn by a crash would leave it.
+        Path segment = segments().get(0);
+        int lastRecord = offsetOfRecord(segment, 4);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {'#'}), lastRecord + 9 + 5);
+        }
+
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            assertEquals(range(0, 4), replay(log));
+            for (int i = 100; i < 130; i++) log.awaitDurable(log.append((byte) 1, payload(i)));
+        }
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            List<String> expected = range(0, 4);
+            expected.addAll(range(100, 130));
+            assertEquals(expected, replay(log));
+        }
+    }
+
+    @Test
+    void truncatedTailIsDropped() throws IOException {
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            for (int i = 0; i < 3; i++) log.awaitDurable(log.append((byte) 1, payload(i)));
+        }
+        // Zero the second half of the last record, as if it never reached the disk.
+        Path segment = segments().get(0);
+        int lastRecord = offsetOfRecord(segment, 2);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[8]), lastRecord + 9);
+        }
+
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT)) {
+            assertEquals(range(0, 2), replay(log));
+            log.awaitDurable(log.append((byte) 1, payload(7)));
+            List<String> expected = range(0, 2);
+            expected.add("record 7");
+            assertEquals(expected, replay(log));
+        }
+    }
+
+    @Test
+    void awaitDurableReturnsForEveryAppendFromManyThreads() throws Exception {
+        try (RecordLog log = new RecordLog(dir, SMALL_SEGMENT * 64)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int writer = t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 50; i++) log.awaitDurable(log.append((byte) 1, payload(writer * 1000 + i)));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                writers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : writers) thread.join(30_000);
+            for (Thread thread : writers) assertFalse(thread.isAlive(), "a writer is still waiting for its flush");
+            assertEquals(200, replay(log).size());
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("record " + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> out = new ArrayList<>();
+        for (int i = from; i < to; i++) out.add("record " + i);
+        return out;
+    }
+
+    private static List<String> replay(RecordLog log) throws IOException {
+        List<String> out = new ArrayList<>();
+        log.replay((type, payload) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            out.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return out;
+    }
+
+    // Where the n-th record (from 0) of a segment starts: each is [int length][int crc][type][payload].
+    private static int offsetOfRecord(Path segment, int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int pos = 0;
+        for (int i = 0; i < n; i++) pos += 8 + buf.getInt(pos);
+        return pos;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "segment-*.log")) {
+            for (Path p : ds) out.add(p);
+        }
+        out.sort(null);
+        return out;
+    }
+}
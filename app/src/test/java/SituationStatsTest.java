@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SituationStatsTest {
+    @Test
+    void countsInjuredReportsApartFromUnhurtOnes() throws Exception {
+        DisasterManager floods = new FloodManager(new HospitalDirectory());
+        SituationStats stats = new SituationStats();
+        floods.attachStats(stats);
+        floods.insertReport("A", "Nasugbu", "flooded", "none");
+        floods.insertReport("B", "Nasugbu", "flooded", "no injuries");
+        floods.insertReport("C", "Nasugbu", "flooded", "minor cuts");
+        floods.insertReport("D", "Nasugbu", "flooded", "fractured arm");
+        Report moved = floods.insertReport("E", "Nasugbu", "flooded", "drowning");
+        floods.insertReport("F", "Lipa", "flooded", "sprain");
+
+        assertEquals(3, stats.count(DisasterType.FLOOD, "Nasugbu", null, true, ReportStatus.ACTIVE));
+        assertEquals(2, stats.count(DisasterType.FLOOD, "Nasugbu", null, false, ReportStatus.ACTIVE));
+        assertEquals(3, stats.count(DisasterType.FLOOD, "Nasugbu", Severity.MINOR, null, ReportStatus.ACTIVE));
+
+        floods.updateStatus(moved.getId(), ReportStatus.DISPATCHED);
+        assertEquals(2, stats.count(DisasterType.FLOOD, "Nasugbu", null, true, ReportStatus.ACTIVE));
+        assertEquals(1, stats.count(null, null, null, true, ReportStatus.DISPATCHED));
+        assertEquals(4, stats.byInjured()[1][ReportStatus.ACTIVE.ordinal()] + stats.byInjured()[1][ReportStatus.DISPATCHED.ordinal()]);
+    }
+
+    @Test
+    void uninjuredOnlyWhenNothingElseIsNamed() {
+        assertTrue(Severity.meansUninjured("None"));
+        assertTrue(Severity.meansUninjured("not injured"));
+        assertFalse(Severity.meansUninjured("none, but a cut on the arm"));
+        assertFalse(Severity.meansUninjured("minor cut"));
+        assertFalse(Severity.meansUninjured(""));
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class TriageTest {
+    @Test
+    void stemsMatchOnlyAtTheStartOfAWord() {
+        assertEquals(Severity.UNASSESSED, Severity.classify("acute asthma attack"));
+        assertEquals(Severity.UNASSESSED, Severity.classify("stable"));
+        assertEquals(Severity.UNASSESSED, Severity.classify("elaborate breathing"));
+        assertEquals(Severity.MINOR, Severity.classify("small cuts on the arm"));
+        assertEquals(Severity.SERIOUS, Severity.classify("fractured leg"));
+    }
+
+    @Test
+    void wholeWordEntriesNeedTheWholeWord() {
+        assertEquals(Severity.SERIOUS, Severity.classify("stab"));
+        assertEquals(Severity.SERIOUS, Severity.classify("stabbed in the arm"));
+        assertEquals(Severity.SERIOUS, Severity.classify("woman in labor"));
+        assertEquals(Severity.UNASSESSED, Severity.classify("laboratory"));
+    }
+
+    @Test
+    void phrasesNeedTheirWordsInOrder() {
+        assertEquals(Severity.CRITICAL, Severity.classify("Not breathing!"));
+        assertEquals(Severity.MINOR, Severity.classify("no injury"));
+        assertEquals(Severity.SERIOUS, Severity.classify("deep cut, left hand"));
+        assertEquals(Severity.MINOR, Severity.classify("cut deep"));
+    }
+
+    @Test
+    void mostSevereLevelWins() {
+        assertEquals(Severity.SERIOUS, Severity.classify("burns and fracture"));
+        assertEquals(Severity.CRITICAL, Severity.classify("drowning, minor cuts"));
+        assertEquals(Severity.UNASSESSED, Severity.classify(""));
+        assertEquals(Severity.UNASSESSED, Severity.classify(null));
+    }
+
+    @Test
+    void reportsLeaveTheQueueWhenTheyStopBeingActive() throws Exception {
+        DisasterManager manager = new FireManager(new HospitalDirectory());
+        TriageQueue queue = new TriageQueue();
+        manager.attachTriage(queue);
+        Report resolved = manager.insertReport("A", "Lipa", "house fire", "burns");
+        Report deleted = manager.insertReport("B", "Lipa", "house fire", "smoke inhalation");
+        Report waiting = manager.insertReport("C", "Lipa", "house fire", "sprain");
+        assertEquals(3, queue.size());
+
+        manager.updateStatus(resolved.getId(), ReportStatus.RESOLVED);
+        manager.deleteReport(deleted.getId());
+        assertEquals(1, queue.size());
+        assertEquals(1, manager.compact(Long.MAX_VALUE));
+        assertEquals(1, queue.size());
+
+        manager.updateStatus(resolved.getId(), ReportStatus.ACTIVE);
+        manager.updateStatus(resolved.getId(), ReportStatus.DISPATCHED);
+        manager.updateStatus(resolved.getId(), ReportStatus.ACTIVE);
+        assertEquals(2, queue.size());
+        assertSame(resolved, queue.poll());
+        assertSame(waiting, queue.poll());
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,97 @@
+package readysetrecover.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/* ---------------------------
+   Access to the application classes
+   The application lives in the unnamed package, which Java code in a
+   named package (as JMH requires benchmarks to be) cannot refer to.
+   Both end up in the same unnamed module on the class path, so method
+   handles can reach them, package-private members included. The
+   handles are static finals, which the JIT inlines like direct calls.
+   --------------------------- */
+final class App {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    static final Class<?> DISASTER_TYPE = type("DisasterType");
+    static final Class<?> GUIDE_SECTION = type("GuideCatalog$Section");
+    static final Class<?> SURVIVOR_SORT_KEY = type("SurvivorSortKey");
+
+    static final MethodHandle NEW_HOSPITAL_DIRECTORY = constructor("HospitalDirectory");
+    static final MethodHandle NEW_EARTHQUAKE_MANAGER = constructor("EarthquakeManager", type("HospitalDirectory"));
+    static final MethodHandle NEW_SURVIVOR_REGISTRY = constructor("SurvivorRegistry");
+
+    static final MethodHandle INSERT_REPORT = method("DisasterManager", "insertReport", type("Report"), String.class, String.class, String.class, String.class);
+    static final MethodHandle INSERT_REPORTS = method("DisasterManager", "insertReports", List.class, List.class);
+    static final MethodHandle SEARCH_BY_ID_OR_NAME = method("DisasterManager", "searchByIdOrName", type("Report"), String.class);
+    static final MethodHandle DELETE_REPORT = method("DisasterManager", "deleteReport", boolean.class, String.class);
+    static final MethodHandle REPORT_ID = method("Report", "getId", String.class);
+    static final MethodHandle REPORT_TO_STRING = method("Report", "toString", String.class);
+
+    static final MethodHandle FIND_HOSPITALS_BY_CITY = method("HospitalDirectory", "findHospitalsByCity", List.class, String.class);
+
+    static final MethodHandle ADD_SURVIVOR = method("SurvivorRegistry", "add", type("Survivor"), String.class, String.class, String.class, String.class);
+    static final MethodHandle ADD_SURVIVORS = method("SurvivorRegistry", "addAll", List.class, List.class);
+    static final MethodHandle FIND_SURVIVORS_BY_NAME = method("SurvivorRegistry", "findByName", List.class, String.class);
+    static final MethodHandle SORTED_SURVIVORS = method("SurvivorRegistry", "sorted", List.class, SURVIVOR_SORT_KEY);
+    static final MethodHandle REMOVE_SURVIVOR = method("SurvivorRegistry", "remove", boolean.class, type("Survivor"));
+
+    static final MethodHandle GUIDE_CATALOG = staticMethod("GuideCatalog", "get", type("GuideCatalog"));
+    static final MethodHandle SHOW_GUIDE = method("GuideCatalog", "showGuide", void.class, GUIDE_SECTION, DISASTER_TYPE, java.io.PrintStream.class);
+    static final MethodHandle GUIDE_LINES = method("GuideCatalog", "lines", List.class, GUIDE_SECTION, DISASTER_TYPE, int.class);
+
+    private App() {}
+
+    /* A constant of one of the application's enums, e.g. constant(DISASTER_TYPE, "FLOOD"). */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object constant(Class<?> enumType, String name) {
+        return Enum.valueOf((Class) enumType, name);
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Application class missing from the class path: " + name, e);
+        }
+    }
+
+    // Handles are widened to Object parameters and result, so call sites can use invokeExact without the types.
+    private static MethodHandle constructor(String owner, Class<?>... params) {
+        try {
+            Class<?> c = type(owner);
+            MethodHandle h = MethodHandles.privateLookupIn(c, LOOKUP).findConstructor(c, MethodType.methodType(void.class, params));
+            return h.asType(MethodType.genericMethodType(params.length));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No constructor " + owner + params.length, e);
+        }
+    }
+
+    private static MethodHandle method(String owner, String name, Class<?> result, Class<?>... params) {
+        try {
+            Class<?> c = type(owner);
+            MethodHandle h = MethodHandles.privateLookupIn(c, LOOKUP).findVirtual(c, name, MethodType.methodType(result, params));
+            return generic(h);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No method " + owner + "." + name, e);
+        }
+    }
+
+    private static MethodHandle staticMethod(String owner, String name, Class<?> result, Class<?>... params) {
+        try {
+            Class<?> c = type(owner);
+            return generic(MethodHandles.privateLookupIn(c, LOOKUP).findStatic(c, name, MethodType.methodType(result, params)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No method " + owner + "." + name, e);
+        }
+    }
+
+    private static MethodHandle generic(MethodHandle h) {
+        MethodType generic = MethodType.genericMethodType(h.type().parameterCount());
+        if (h.type().returnType() == void.class) generic = generic.changeReturnType(void.class);
+        return h.asType(generic);
+    }
+}
@@ -0,0 +1,42 @@
+package readysetrecover.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* ---------------------------
+   Benchmark launcher
+   java [-Drsr.benchHeap=12g] -jar benchmarks/target/benchmarks.jar [JMH options]
+   Takes the usual JMH options and always adds the allocation (GC)
+   profiler, so every result comes with bytes allocated per operation.
+
+   Each fork gets a heap of -Drsr.benchHeap (default 12g, which the 10M
+   record runs need) and runs with the application's latency timers off
+   (-Drsr.metrics=off), so the numbers are the code's own. JVM options
+   given with -jvmArgsAppend come after these and win.
+   --------------------------- */
+public final class BenchmarkMain {
+    private static final List<String> INFO_OPTIONS = List.of("-h", "-l", "-lp", "-lprof", "-lrf");
+    private static final String DEFAULT_HEAP = "12g";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.stream(args).anyMatch(INFO_OPTIONS::contains)) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        CommandLineOptions given = new CommandLineOptions(args);
+        List<String> jvmArgs = new ArrayList<>(List.of("-Xmx" + System.getProperty("rsr.benchHeap", DEFAULT_HEAP), "-Drsr.metrics=off"));
+        if (given.getJvmArgsAppend().hasValue()) jvmArgs.addAll(given.getJvmArgsAppend().get());
+        new Runner(new OptionsBuilder()
+                .parent(given)
+                .jvmArgsAppend(jvmArgs.toArray(new String[0]))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,47 @@
+package readysetrecover.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/* ---------------------------
+   Guide display benchmarks
+   Showing a preparation guide as one write of its pre-rendered bytes,
+   against printing it line by line as the menus used to. Output goes
+   to a stream that discards it, so only the formatting and copying
+   are measured.
+   --------------------------- */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GuideBenchmarks {
+    private Object catalog;
+    private Object preparation;
+    private Object earthquake;
+    private List<?> lines;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable {
+        catalog = (Object) App.GUIDE_CATALOG.invokeExact();
+        preparation = App.constant(App.GUIDE_SECTION, "PREPARATION");
+        earthquake = App.constant(App.DISASTER_TYPE, "EARTHQUAKE");
+        lines = (List<?>) (Object) App.GUIDE_LINES.invokeExact(catalog, preparation, earthquake, (Object) 0);
+        out = new PrintStream(OutputStream.nullOutputStream(), false, "UTF-8");
+    }
+
+    @Benchmark
+    public void showRenderedGuide() throws Throwable {
+        App.SHOW_GUIDE.invokeExact(catalog, preparation, earthquake, (Object) out);
+    }
+
+    @Benchmark
+    public void printGuideLineByLine() {
+        for (Object line : lines) out.println(line);
+    }
+}
@@ -0,0 +1,40 @@
+package readysetrecover.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/* ---------------------------
+   Hospital directory benchmarks
+   The directory is fixed in size, so there is no record count: a city
+   named exactly, one with a typing mistake, and one that is unknown
+   (answered with the major hospitals).
+   --------------------------- */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HospitalBenchmarks {
+    private Object directory;
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable {
+        directory = (Object) App.NEW_HOSPITAL_DIRECTORY.invokeExact();
+    }
+
+    @Benchmark
+    public Object findHospitalsByExactCity() throws Throwable {
+        return (Object) App.FIND_HOSPITALS_BY_CITY.invokeExact(directory, (Object) "Lipa City");
+    }
+
+    @Benchmark
+    public Object findHospitalsByMistypedCity() throws Throwable {
+        return (Object) App.FIND_HOSPITALS_BY_CITY.invokeExact(directory, (Object) "Tanuan");
+    }
+
+    @Benchmark
+    public Object findHospitalsByUnknownCity() throws Throwable {
+        return (Object) App.FIND_HOSPITALS_BY_CITY.invokeExact(directory, (Object) "Atlantis");
+    }
+}
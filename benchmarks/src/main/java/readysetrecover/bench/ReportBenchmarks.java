@@ -0,0 +1,114 @@
+package readysetrecover.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/* ---------------------------
+   Disaster manager benchmarks
+   One earthquake manager loaded with the given number of reports, by
+   reporters named "<first> <last> <n>". Lookups pick from 1024 of them
+   chosen at random, so they are not all served from the same cache
+   lines. Insert benchmarks grow the store as they run; at 1k records
+   the store ends a good deal larger than it started.
+   --------------------------- */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmarks {
+    static final String[] FIRST = {"Juan", "Maria", "Jose", "Ana", "Pedro", "Rosa", "Carlo", "Liza", "Mark", "Joy", "Paolo", "Grace", "Ramon", "Celia", "Dante", "Nora"};
+    static final String[] LAST = {"Reyes", "Santos", "Cruz", "Bautista", "Garcia", "Mendoza", "Dela Cruz", "Ramos", "Aquino", "Castillo", "Villanueva", "Torres", "Flores", "Gonzales", "Lopez", "Marasigan"};
+    static final String[] PLACES = {"Lipa City", "Batangas City", "Tanauan City", "Nasugbu", "Bauan", "Lemery", "Sto. Tomas", "Balayan"};
+    static final String[] INJURIES = {"fracture", "minor cut", "burns", "drowning", "none", "sprain"};
+
+    private static final int BATCH = 10_000;
+    private static final int SAMPLES = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int records;
+
+    private Object manager;
+    private final String[] ids = new String[SAMPLES];
+    private final String[] names = new String[SAMPLES];
+    private final String[] fragments = new String[SAMPLES];
+    private final Object[] reports = new Object[SAMPLES];
+    private int next;
+    private long added;
+
+    static String reporter(long i) {
+        return FIRST[(int) (i % FIRST.length)] + " " + LAST[(int) (i / FIRST.length % LAST.length)] + " " + i;
+    }
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable {
+        Object hospitals = (Object) App.NEW_HOSPITAL_DIRECTORY.invokeExact();
+        manager = (Object) App.NEW_EARTHQUAKE_MANAGER.invokeExact(hospitals);
+        Random random = new Random(42);
+        int[] picks = new int[SAMPLES];
+        for (int s = 0; s < SAMPLES; s++) picks[s] = random.nextInt(records);
+        for (int from = 0; from < records; from += BATCH) {
+            int to = Math.min(records, from + BATCH);
+            List<String[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) rows.add(row(i));
+            List<?> batch = (List<?>) (Object) App.INSERT_REPORTS.invokeExact(manager, (Object) rows);
+            for (int s = 0; s < SAMPLES; s++) {
+                if (picks[s] >= from && picks[s] < to) reports[s] = batch.get(picks[s] - from);
+            }
+        }
+        for (int s = 0; s < SAMPLES; s++) {
+            ids[s] = (String) (Object) App.REPORT_ID.invokeExact(reports[s]);
+            names[s] = reporter(picks[s]);
+            // The last name and number: a substring of one reporter's name only.
+            String name = names[s];
+            fragments[s] = name.substring(name.indexOf(' ') + 1);
+        }
+        added = records;
+    }
+
+    private static String[] row(long i) {
+        return new String[] {reporter(i), PLACES[(int) (i % PLACES.length)], "Collapsed wall, needs assistance", INJURIES[(int) (i % INJURIES.length)]};
+    }
+
+    private int pick() {
+        return next++ & (SAMPLES - 1);
+    }
+
+    @Benchmark
+    public Object insertReport() throws Throwable {
+        long i = added++;
+        return (Object) App.INSERT_REPORT.invokeExact(manager, (Object) reporter(i), (Object) PLACES[(int) (i & 7)], (Object) "Trapped under debris", (Object) "fracture");
+    }
+
+    @Benchmark
+    public Object searchById() throws Throwable {
+        return (Object) App.SEARCH_BY_ID_OR_NAME.invokeExact(manager, (Object) ids[pick()]);
+    }
+
+    @Benchmark
+    public Object searchByExactName() throws Throwable {
+        return (Object) App.SEARCH_BY_ID_OR_NAME.invokeExact(manager, (Object) names[pick()]);
+    }
+
+    @Benchmark
+    public Object searchBySubstring() throws Throwable {
+        return (Object) App.SEARCH_BY_ID_OR_NAME.invokeExact(manager, (Object) fragments[pick()]);
+    }
+
+    /* Deleting needs a report to delete, so this inserts one first; subtract insertReport for the delete alone. */
+    @Benchmark
+    public Object insertThenDeleteReport() throws Throwable {
+        long i = added++;
+        Object r = (Object) App.INSERT_REPORT.invokeExact(manager, (Object) reporter(i), (Object) "Lipa City", (Object) "Trapped under debris", (Object) "fracture");
+        return (Object) App.DELETE_REPORT.invokeExact(manager, (Object) (String) (Object) App.REPORT_ID.invokeExact(r));
+    }
+
+    @Benchmark
+    public Object reportToString() throws Throwable {
+        return (Object) App.REPORT_TO_STRING.invokeExact(reports[pick()]);
+    }
+}
@@ -0,0 +1,72 @@
+package readysetrecover.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/* ---------------------------
+   Survivor registry benchmarks
+   The store behind the AfterDisaster menu: search by name, the sorted
+   listing, and delete. Survivors are named like the report benchmarks'
+   reporters.
+   --------------------------- */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SurvivorBenchmarks {
+    private static final int BATCH = 10_000;
+    private static final int SAMPLES = 1024;
+    private static final String[] HEALTH = {"Stable", "Injured", "Critical", "Recovering"};
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int records;
+
+    private Object registry;
+    private Object byName;
+    private final String[] names = new String[SAMPLES];
+    private int next;
+    private long added;
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable {
+        registry = (Object) App.NEW_SURVIVOR_REGISTRY.invokeExact();
+        byName = App.constant(App.SURVIVOR_SORT_KEY, "NAME");
+        for (int from = 0; from < records; from += BATCH) {
+            int to = Math.min(records, from + BATCH);
+            List<String[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) rows.add(row(i));
+            Object ignored = (Object) App.ADD_SURVIVORS.invokeExact(registry, (Object) rows);
+        }
+        Random random = new Random(42);
+        for (int s = 0; s < SAMPLES; s++) names[s] = ReportBenchmarks.reporter(random.nextInt(records));
+        added = records;
+    }
+
+    private static String[] row(long i) {
+        return new String[] {ReportBenchmarks.reporter(i), ReportBenchmarks.PLACES[(int) (i % 8)], HEALTH[(int) (i & 3)], "Food and water"};
+    }
+
+    @Benchmark
+    public Object findByName() throws Throwable {
+        return (Object) App.FIND_SURVIVORS_BY_NAME.invokeExact(registry, (Object) names[next++ & (SAMPLES - 1)]);
+    }
+
+    /* The sorted view is built by the first call and kept up to date; each call copies it out. */
+    @Benchmark
+    public Object sortedByName() throws Throwable {
+        return (Object) App.SORTED_SURVIVORS.invokeExact(registry, byName);
+    }
+
+    /* Removing needs a survivor to remove, so this adds one first. */
+    @Benchmark
+    public Object addThenRemove() throws Throwable {
+        long i = added++;
+        Object s = (Object) App.ADD_SURVIVOR.invokeExact(registry, (Object) ReportBenchmarks.reporter(i), (Object) "Lipa City", (Object) "Stable", (Object) "Shelter");
+        return (Object) App.REMOVE_SURVIVOR.invokeExact(registry, s);
+    }
+}